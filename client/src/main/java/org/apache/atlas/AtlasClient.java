@@ -82,6 +82,7 @@ public class AtlasClient {
     public static final String REQUEST_ID = "requestId";
     public static final String RESULTS = "results";
     public static final String COUNT = "count";
+    public static final String CURSOR = "cursor";
     public static final String ROWS = "rows";
     public static final String DATATYPE = "dataType";
     public static final String STATUS = "Status";
@@ -21,6 +21,8 @@ package org.apache.atlas.hook;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.MessageDeserializer;
 import org.apache.atlas.notification.NotificationInterface;
 import org.apache.atlas.notification.NotificationModule;
 import org.apache.atlas.notification.hook.HookNotification;
@@ -33,10 +35,15 @@ import org.codehaus.jettison.json.JSONArray;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -50,6 +57,28 @@ public abstract class AtlasHook {
 
     protected static NotificationInterface notifInterface;
 
+    public static final String COALESCE_WINDOW_MS_PROPERTY = "atlas.hook.coalesce.window.ms";
+
+    public static final String SPOOL_DIR_PROPERTY = "atlas.hook.spool.dir";
+    public static final String SPOOL_MAX_SIZE_MB_PROPERTY = "atlas.hook.spool.max.size.mb";
+    public static final String SPOOL_RETRY_INTERVAL_MS_PROPERTY = "atlas.hook.spool.retry.interval.ms";
+    public static final long DEFAULT_SPOOL_MAX_SIZE_MB = 100;
+    public static final long DEFAULT_SPOOL_RETRY_INTERVAL_MS = 5000;
+
+    private static final int SPOOL_DRAIN_BATCH_SIZE = 100;
+    private static final long SPOOL_CLOSE_TIMEOUT_MS = 1000;
+
+    // buffers messages for coalescing when a coalescing window is configured
+    private static HookMessageCoalescer coalescer;
+
+    // number of send attempts for coalesced messages, as passed by the latest caller
+    private static volatile int coalescedMaxRetries = 1;
+
+    // holds all messages when a spool directory is configured, so that only the drainer thread sends them
+    static HookMessageSpool spool;
+
+    private static Thread drainer;
+
     static {
         try {
             atlasProperties = ApplicationProperties.get();
@@ -60,6 +89,57 @@ public abstract class AtlasHook {
         Injector injector = Guice.createInjector(new NotificationModule());
         notifInterface = injector.getInstance(NotificationInterface.class);
 
+        long coalesceWindowMs = atlasProperties == null ? 0 : atlasProperties.getLong(COALESCE_WINDOW_MS_PROPERTY, 0);
+        if (coalesceWindowMs > 0) {
+            coalescer = new HookMessageCoalescer();
+            ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Atlas Hook coalescer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            flusher.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    flushCoalescer();
+                }
+            }, coalesceWindowMs, coalesceWindowMs, TimeUnit.MILLISECONDS);
+        }
+
+        String spoolDir = atlasProperties == null ? null : atlasProperties.getString(SPOOL_DIR_PROPERTY);
+        if (StringUtils.isNotEmpty(spoolDir)) {
+            long maxSizeMb = atlasProperties.getLong(SPOOL_MAX_SIZE_MB_PROPERTY, DEFAULT_SPOOL_MAX_SIZE_MB);
+            final long retryIntervalMs =
+                    atlasProperties.getLong(SPOOL_RETRY_INTERVAL_MS_PROPERTY, DEFAULT_SPOOL_RETRY_INTERVAL_MS);
+            try {
+                spool = new HookMessageSpool(new File(spoolDir), "atlas-hook", maxSizeMb * 1024 * 1024);
+
+                drainer = new Thread("Atlas Hook spool drainer") {
+                    @Override
+                    public void run() {
+                        drainSpool(retryIntervalMs);
+                    }
+                };
+                drainer.setDaemon(true);
+                drainer.start();
+            } catch (IOException e) {
+                LOG.error("Failed to open hook message spool in {}, sending notifications directly", spoolDir, e);
+                spool = null;
+            }
+        }
+
+        //Messages may still be buffered or in flight when the hook's host process exits
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                flushCoalescer();
+                closeSpool();
+                notifInterface.close();
+            }
+        });
+
         LOG.info("Created Atlas Hook");
     }
 
@@ -85,11 +165,38 @@ public abstract class AtlasHook {
      * De-duping of entities is done on server side depending on the
      * unique attribute on the entities.
      *
+     * Transient broker failures are also retried by the notification producer (see atlas.kafka.retries); failures
+     * reported by the send call itself are retried here. When a spool directory is configured, messages are only
+     * appended to a local spool, and sent in order by a background thread, so that a slow or unavailable notification
+     * bus never blocks the caller.
+     *
      * @param messages hook notification messages
      * @param maxRetries maximum number of retries while sending message to messaging system
      */
     public static void notifyEntities(List<HookNotification.HookNotificationMessage> messages, int maxRetries) {
-        final String message = messages.toString();
+        if (coalescer != null) {
+            coalescedMaxRetries = maxRetries;
+            coalescer.add(messages);
+            return;
+        }
+
+        send(messages, maxRetries);
+    }
+
+    private static void flushCoalescer() {
+        if (coalescer != null) {
+            List<HookNotification.HookNotificationMessage> messages = coalescer.drain();
+            if (!messages.isEmpty()) {
+                send(messages, coalescedMaxRetries);
+            }
+        }
+    }
+
+    private static void send(List<HookNotification.HookNotificationMessage> messages, int maxRetries) {
+        if (spool != null) {
+            spool(messages);
+            return;
+        }
 
         int numRetries = 0;
         while (true) {
@@ -99,16 +206,110 @@ public abstract class AtlasHook {
             } catch(Exception e) {
                 numRetries++;
                 if (numRetries < maxRetries) {
-                    LOG.debug("Failed to notify atlas for entity {}. Retrying", message, e);
+                    LOG.debug("Failed to notify atlas for entity {}. Retrying", messages, e);
                 } else {
                     LOG.error("Failed to notify atlas for entity {} after {} retries. Quitting",
-                            message, maxRetries, e);
+                            messages, maxRetries, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void spool(List<HookNotification.HookNotificationMessage> messages) {
+        List<String> jsons = new ArrayList<>(messages.size());
+        for (HookNotification.HookNotificationMessage message : messages) {
+            jsons.add(AbstractNotification.getMessageJson(message));
+        }
+
+        try {
+            if (!spool.append(jsons)) {
+                LOG.error("Hook message spool is full, dropping notification for entity {}", messages);
+            }
+        } catch (IOException e) {
+            LOG.error("Failed to spool notification for entity {}", messages, e);
+        }
+    }
+
+    /**
+     * Send the spooled messages in order, retrying the messages that could not be sent after the given interval.
+     */
+    private static void drainSpool(long retryIntervalMs) {
+        while (true) {
+            try {
+                if (!drainSpoolBatch(retryIntervalMs)) {
+                    Thread.sleep(retryIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                LOG.error("Failed to drain hook message spool", e);
+                try {
+                    Thread.sleep(retryIntervalMs);
+                } catch (InterruptedException ie) {
                     return;
                 }
             }
         }
     }
 
+    /**
+     * Send the next batch of spooled messages, waiting for up to the given time if there are none. The batch is only
+     * removed from the spool once the notification interface is flushed, which reports the failures of asynchronous
+     * sends. This is the only thread sending messages when the spool is used, so the failures are those of the batch.
+     *
+     * @return false if the batch could not be sent and is to be retried
+     */
+    static boolean drainSpoolBatch(long timeoutMs) throws IOException, InterruptedException {
+        List<String> jsons = spool.read(SPOOL_DRAIN_BATCH_SIZE, timeoutMs);
+        if (jsons.isEmpty()) {
+            return true;
+        }
+
+        MessageDeserializer<HookNotification.HookNotificationMessage> deserializer =
+                NotificationInterface.NotificationType.HOOK.getDeserializer();
+        List<HookNotification.HookNotificationMessage> messages = new ArrayList<>(jsons.size());
+        for (String json : jsons) {
+            try {
+                HookNotification.HookNotificationMessage message = deserializer.deserialize(json);
+                if (message != null) {
+                    messages.add(message);
+                }
+            } catch (Exception e) {
+                LOG.error("Dropping unreadable spooled notification {}", json, e);
+            }
+        }
+
+        try {
+            notifInterface.send(NotificationInterface.NotificationType.HOOK, messages);
+            notifInterface.flush();
+        } catch (Exception e) {
+            LOG.warn("Failed to send {} spooled notifications, retrying in {} ms", messages.size(), timeoutMs, e);
+            return false;
+        }
+
+        spool.commitRead();
+        return true;
+    }
+
+    /**
+     * Stop the spool drainer and release the spool. Messages it has not sent yet stay in the spool, and are sent by
+     * the next process using the spool directory.
+     */
+    private static void closeSpool() {
+        if (spool == null) {
+            return;
+        }
+
+        drainer.interrupt();
+        try {
+            drainer.join(SPOOL_CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        spool.close();
+    }
+
     /**
      * Notify atlas of the entity through message. The entity can be a
      * complex entity with reference to other entities.
@@ -0,0 +1,261 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hook;
+
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.notification.hook.HookNotification;
+import org.apache.atlas.typesystem.Referenceable;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.codehaus.jettison.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers hook notification messages and coalesces redundant ones until they are drained.
+ *
+ * Consecutive create (or full update) messages from the same user are merged into one message, keeping only the
+ * latest version of each entity, identified by type name and qualifiedName. The latest version keeps the id of the
+ * first one, and references to the ids of the dropped versions are rewritten to it. Messages with entities that have
+ * no qualifiedName are passed through as they are. Consecutive partial updates from the same user are merged per
+ * entity, later attribute values overriding earlier ones. Any other message ends the current run, so the order of
+ * updates to an entity is preserved. The messages and entities added are never modified.
+ */
+public class HookMessageCoalescer {
+
+    private final List<HookNotification.HookNotificationMessage> messages = new ArrayList<>();
+
+    // the current run of coalescable messages
+    private HookNotification.HookNotificationType runType;
+    private String runUser;
+    private Map<String, Referenceable> runEntities;
+    private Map<Id, Id> runReplacedIds;
+    private Map<String, HookNotification.EntityPartialUpdateRequest> runPartialUpdates;
+
+    /**
+     * Add the given messages to the buffer.
+     *
+     * @param hookMessages  the messages to add
+     */
+    public synchronized void add(List<HookNotification.HookNotificationMessage> hookMessages) {
+        for (HookNotification.HookNotificationMessage message : hookMessages) {
+            add(message);
+        }
+    }
+
+    /**
+     * Remove and return the buffered messages.
+     *
+     * @return the coalesced messages, in order
+     */
+    public synchronized List<HookNotification.HookNotificationMessage> drain() {
+        endRun();
+        List<HookNotification.HookNotificationMessage> ret = new ArrayList<>(messages);
+        messages.clear();
+        return ret;
+    }
+
+    private void add(HookNotification.HookNotificationMessage message) {
+        HookNotification.HookNotificationType type = message.getType();
+        if (type != runType || !message.getUser().equals(runUser)) {
+            endRun();
+        }
+
+        switch (type) {
+        case ENTITY_CREATE:
+        case ENTITY_FULL_UPDATE:
+            List<Referenceable> entities;
+            try {
+                entities = ((HookNotification.EntityCreateRequest) message).getEntities();
+            } catch (JSONException e) {
+                endRun();
+                messages.add(message);
+                return;
+            }
+
+            if (!hasQualifiedNames(entities)) {
+                endRun();
+                messages.add(message);
+                return;
+            }
+
+            startRun(message);
+            for (Referenceable entity : entities) {
+                String key = entity.getTypeName() + "." + entity.get(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME);
+                Referenceable previous = runEntities.get(key);
+                if (previous != null && !previous.getId().equals(entity.getId())) {
+                    runReplacedIds.put(entity.getId(), previous.getId());
+                    entity = copy(entity);
+                    entity.replaceWithNewId(previous.getId());
+                }
+                runEntities.put(key, entity);
+            }
+            break;
+
+        case ENTITY_PARTIAL_UPDATE:
+            HookNotification.EntityPartialUpdateRequest partialUpdate =
+                    (HookNotification.EntityPartialUpdateRequest) message;
+            startRun(message);
+            String key = partialUpdate.getTypeName() + "." + partialUpdate.getAttribute() + "."
+                    + partialUpdate.getAttributeValue();
+            HookNotification.EntityPartialUpdateRequest previous = runPartialUpdates.remove(key);
+            if (previous != null) {
+                Referenceable merged = copy(partialUpdate.getEntity());
+                Map<String, Object> values = merged.getValuesMap();
+                for (Map.Entry<String, Object> entry : previous.getEntity().getValuesMap().entrySet()) {
+                    if (!values.containsKey(entry.getKey())) {
+                        values.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                partialUpdate = new HookNotification.EntityPartialUpdateRequest(partialUpdate.getUser(),
+                        partialUpdate.getTypeName(), partialUpdate.getAttribute(), partialUpdate.getAttributeValue(),
+                        merged);
+            }
+            runPartialUpdates.put(key, partialUpdate);
+            break;
+
+        default:
+            messages.add(message);
+        }
+    }
+
+    private void startRun(HookNotification.HookNotificationMessage message) {
+        if (runType == null) {
+            runType = message.getType();
+            runUser = message.getUser();
+            runEntities = new LinkedHashMap<>();
+            runReplacedIds = new HashMap<>();
+            runPartialUpdates = new LinkedHashMap<>();
+        }
+    }
+
+    private void endRun() {
+        if (runType == null) {
+            return;
+        }
+
+        if (!runEntities.isEmpty()) {
+            List<Referenceable> entities = new ArrayList<>(runEntities.size());
+            for (Referenceable entity : runEntities.values()) {
+                entities.add(runReplacedIds.isEmpty() ? entity : rewriteReferences(entity));
+            }
+            if (runType == HookNotification.HookNotificationType.ENTITY_CREATE) {
+                messages.add(new HookNotification.EntityCreateRequest(runUser, entities));
+            } else {
+                messages.add(new HookNotification.EntityUpdateRequest(runUser, entities));
+            }
+        }
+        messages.addAll(runPartialUpdates.values());
+
+        runType = null;
+        runUser = null;
+        runEntities = null;
+        runReplacedIds = null;
+        runPartialUpdates = null;
+    }
+
+    private static boolean hasQualifiedNames(List<Referenceable> entities) {
+        for (Referenceable entity : entities) {
+            if (entity.get(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the given entity with the references to replaced ids rewritten, copying it if anything changed.
+     */
+    private Referenceable rewriteReferences(Referenceable entity) {
+        Referenceable ret = entity;
+        for (Map.Entry<String, Object> entry : entity.getValuesMap().entrySet()) {
+            Object value = rewriteReference(entry.getValue());
+            if (value != entry.getValue()) {
+                if (ret == entity) {
+                    ret = copy(entity);
+                }
+                ret.set(entry.getKey(), value);
+            }
+        }
+        return ret;
+    }
+
+    private Object rewriteReference(Object value) {
+        if (value instanceof Id) {
+            Id replacement = runReplacedIds.get(value);
+            return replacement == null ? value : replacement;
+        }
+
+        if (value instanceof Referenceable) {
+            Referenceable entity = (Referenceable) value;
+            Id replacement = runReplacedIds.get(entity.getId());
+            Referenceable ret = rewriteReferences(entity);
+            if (replacement != null) {
+                if (ret == entity) {
+                    ret = copy(entity);
+                }
+                ret.replaceWithNewId(replacement);
+            }
+            return ret;
+        }
+
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            List<Object> ret = null;
+            for (int i = 0; i < list.size(); i++) {
+                Object element = rewriteReference(list.get(i));
+                if (element != list.get(i) && ret == null) {
+                    ret = new ArrayList<Object>(list);
+                }
+                if (ret != null) {
+                    ret.set(i, element);
+                }
+            }
+            return ret == null ? value : ret;
+        }
+
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            Map<Object, Object> ret = null;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                Object element = rewriteReference(entry.getValue());
+                if (element != entry.getValue()) {
+                    if (ret == null) {
+                        ret = new LinkedHashMap<Object, Object>(map);
+                    }
+                    ret.put(entry.getKey(), element);
+                }
+            }
+            return ret == null ? value : ret;
+        }
+
+        return value;
+    }
+
+    private static Referenceable copy(Referenceable entity) {
+        try {
+            return new Referenceable(entity);
+        } catch (AtlasException e) {
+            throw new IllegalStateException("Failed to copy entity " + entity.toShortString(), e);
+        }
+    }
+}
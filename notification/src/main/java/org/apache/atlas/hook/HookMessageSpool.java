@@ -0,0 +1,268 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hook;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A local, append-only spool of notification messages.
+ *
+ * Messages are appended as lines to a spool file and read back in order. The position of the first message that has
+ * not been read and committed is kept in a separate file, so that the messages left in the spool when a process exits
+ * are read by the next process that uses the spool directory; a message that was only partially written when the
+ * process exited is dropped. Each process locks its own spool file, so several processes can share a spool directory.
+ */
+public class HookMessageSpool {
+    private static final Logger LOG = LoggerFactory.getLogger(HookMessageSpool.class);
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File spoolFile;
+    private final File positionFile;
+    private final long maxBytes;
+    private final RandomAccessFile lockFile;
+    private final FileLock lock;
+
+    private long writePosition;
+    private long readPosition;
+    private long pendingReadPosition;
+
+
+    // ----- Constructors ----------------------------------------------------
+
+    /**
+     * Open a spool in the given directory.
+     *
+     * @param directory  the spool directory
+     * @param name       the base name of the spool files
+     * @param maxBytes   the maximum size of the spool file
+     *
+     * @throws IOException if the spool can not be opened
+     */
+    public HookMessageSpool(File directory, String name, long maxBytes) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create spool directory " + directory.getAbsolutePath());
+        }
+
+        // use the first spool file that is not locked by another process
+        for (int i = 0; ; i++) {
+            RandomAccessFile file = new RandomAccessFile(new File(directory, name + "." + i + ".lock"), "rw");
+            FileLock fileLock;
+            try {
+                fileLock = file.getChannel().tryLock();
+            } catch (OverlappingFileLockException e) {
+                fileLock = null;
+            }
+
+            if (fileLock != null) {
+                this.lockFile = file;
+                this.lock = fileLock;
+                this.spoolFile = new File(directory, name + "." + i + ".spool");
+                this.positionFile = new File(directory, name + "." + i + ".position");
+                break;
+            }
+            file.close();
+        }
+
+        this.maxBytes = maxBytes;
+        this.writePosition = truncateToLastLine(spoolFile);
+        this.readPosition = Math.min(readPositionFile(), writePosition);
+        this.pendingReadPosition = readPosition;
+
+        LOG.info("Opened hook message spool {}, {} bytes pending", spoolFile, writePosition - readPosition);
+    }
+
+
+    // ----- HookMessageSpool ------------------------------------------------
+
+    /**
+     * Append the given messages to the spool.
+     *
+     * @param messages  the messages, each without line breaks
+     *
+     * @return false if the spool is full, in which case nothing is appended
+     *
+     * @throws IOException if the messages could not be written
+     */
+    public synchronized boolean append(List<String> messages) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (String message : messages) {
+            lines.append(message).append('\n');
+        }
+        byte[] bytes = lines.toString().getBytes(UTF_8);
+
+        if (writePosition + bytes.length > maxBytes) {
+            return false;
+        }
+
+        try (OutputStream out = new FileOutputStream(spoolFile, true)) {
+            out.write(bytes);
+        }
+        writePosition += bytes.length;
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Read the messages following the last committed read, waiting for up to the given time if there are none.
+     * The same messages are returned again until the read is committed.
+     *
+     * @param maxMessages  the maximum number of messages to read
+     * @param timeoutMs    the maximum time to wait for messages
+     *
+     * @return the messages read, empty if there are none
+     *
+     * @throws IOException if the spool can not be read
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized List<String> read(int maxMessages, long timeoutMs) throws IOException, InterruptedException {
+        if (readPosition == writePosition && timeoutMs > 0) {
+            wait(timeoutMs);
+        }
+
+        List<String> ret = new ArrayList<>();
+        long position = readPosition;
+        if (position < writePosition) {
+            try (FileInputStream in = new FileInputStream(spoolFile)) {
+                in.getChannel().position(position);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, UTF_8));
+
+                String line;
+                while (ret.size() < maxMessages && position < writePosition && (line = reader.readLine()) != null) {
+                    position += line.getBytes(UTF_8).length + 1;
+                    ret.add(line);
+                }
+            }
+        }
+
+        pendingReadPosition = position;
+        return ret;
+    }
+
+    /**
+     * Remove the messages returned by the last read from the spool. The spool file is truncated once all its
+     * messages are removed.
+     *
+     * @throws IOException if the read position can not be written
+     */
+    public synchronized void commitRead() throws IOException {
+        readPosition = pendingReadPosition;
+
+        if (readPosition == writePosition) {
+            try (FileChannel channel = new FileOutputStream(spoolFile, true).getChannel()) {
+                channel.truncate(0);
+            }
+            writePosition = 0;
+            readPosition = 0;
+            pendingReadPosition = 0;
+        }
+
+        writePositionFile(readPosition);
+    }
+
+    /**
+     * @return true if all messages in the spool have been read and committed
+     */
+    public synchronized boolean isEmpty() {
+        return readPosition == writePosition;
+    }
+
+    /**
+     * Release the spool files.
+     */
+    public synchronized void close() {
+        try {
+            lock.release();
+            lockFile.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to release spool lock {}", spoolFile, e);
+        }
+    }
+
+
+    // ----- helper methods --------------------------------------------------
+
+    /**
+     * Truncate the given spool file after its last complete line, dropping a message that was only partially written
+     * when a process exited.
+     *
+     * @return the length of the spool file
+     */
+    private static long truncateToLastLine(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+
+        try (RandomAccessFile spool = new RandomAccessFile(file, "rw")) {
+            long length = spool.length();
+            long end = 0;
+            byte[] buffer = new byte[8192];
+            for (long position = length; position > 0 && end == 0; ) {
+                int count = (int) Math.min(buffer.length, position);
+                position -= count;
+                spool.seek(position);
+                spool.readFully(buffer, 0, count);
+                for (int i = count - 1; i >= 0; i--) {
+                    if (buffer[i] == '\n') {
+                        end = position + i + 1;
+                        break;
+                    }
+                }
+            }
+
+            if (end < length) {
+                LOG.warn("Dropping {} bytes of a partially written message from hook message spool {}",
+                        length - end, file);
+                spool.setLength(end);
+            }
+            return end;
+        }
+    }
+
+    private long readPositionFile() throws IOException {
+        if (!positionFile.exists()) {
+            return 0;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(positionFile, "r")) {
+            return file.length() < 8 ? 0 : file.readLong();
+        }
+    }
+
+    private void writePositionFile(long position) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(positionFile, "rw")) {
+            file.writeLong(position);
+        }
+    }
+}
@@ -17,15 +17,22 @@
  */
 package org.apache.atlas.kafka;
 
+import kafka.common.OffsetAndMetadata;
+import kafka.common.OffsetMetadata;
+import kafka.common.TopicAndPartition;
 import kafka.consumer.ConsumerIterator;
 import kafka.consumer.KafkaStream;
 import kafka.javaapi.consumer.ConsumerConnector;
 import kafka.message.MessageAndMetadata;
 import org.apache.atlas.notification.AbstractNotificationConsumer;
 import org.apache.atlas.notification.MessageDeserializer;
+import org.apache.kafka.common.requests.OffsetCommitRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Kafka specific notification consumer.
  *
@@ -38,8 +45,14 @@ public class KafkaConsumer<T> extends AbstractNotificationConsumer<T> {
     private final ConsumerIterator iterator;
     private final ConsumerConnector consumerConnector;
     private final boolean autoCommitEnabled;
+    private final long commitIntervalMs;
     private long lastSeenOffset;
 
+    // next offset to read per partition, and the offsets of messages whose processing has completed
+    private final Map<TopicAndPartition, Long> consumedOffsets = new HashMap<>();
+    private final Map<TopicAndPartition, Long> processedOffsets = new HashMap<>();
+    private boolean processedOffsetsChanged = false;
+
 
     // ----- Constructors ----------------------------------------------------
 
@@ -53,12 +66,28 @@ public class KafkaConsumer<T> extends AbstractNotificationConsumer<T> {
      */
     public KafkaConsumer(MessageDeserializer<T> deserializer, KafkaStream<String, String> stream, int consumerId,
                          ConsumerConnector consumerConnector, boolean autoCommitEnabled) {
+        this(deserializer, stream, consumerId, consumerConnector, autoCommitEnabled, 0);
+    }
+
+    /**
+     * Create a Kafka consumer that commits offsets in batches.
+     * @param deserializer  the message deserializer used for this consumer
+     * @param stream        the underlying Kafka stream
+     * @param consumerId    an id value for this consumer
+     * @param consumerConnector the {@link ConsumerConnector} which created the underlying Kafka stream
+     * @param autoCommitEnabled true if consumer does not need to commit offsets explicitly, false otherwise.
+     * @param commitIntervalMs if positive, {@link #commit()} only records the processed offsets, which are committed
+     *                         by {@link #commitProcessedOffsets()} instead
+     */
+    public KafkaConsumer(MessageDeserializer<T> deserializer, KafkaStream<String, String> stream, int consumerId,
+                         ConsumerConnector consumerConnector, boolean autoCommitEnabled, long commitIntervalMs) {
         super(deserializer);
         this.consumerConnector = consumerConnector;
         this.lastSeenOffset = 0;
         this.iterator   = stream.iterator();
         this.consumerId = consumerId;
         this.autoCommitEnabled = autoCommitEnabled;
+        this.commitIntervalMs = commitIntervalMs;
     }
 
 
@@ -78,6 +107,9 @@ public class KafkaConsumer<T> extends AbstractNotificationConsumer<T> {
         LOG.debug("Read message: conumerId: {}, topic - {}, partition - {}, offset - {}, message - {}",
                 consumerId, message.topic(), message.partition(), message.offset(), message.message());
         lastSeenOffset = message.offset();
+        if (commitIntervalMs > 0) {
+            consumedOffsets.put(new TopicAndPartition(message.topic(), message.partition()), message.offset() + 1);
+        }
         return (String) message.message();
     }
 
@@ -87,13 +119,56 @@ public class KafkaConsumer<T> extends AbstractNotificationConsumer<T> {
         return (String) message.message();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * All messages read so far must have been processed. With a commit interval, the offsets of these messages are
+     * only recorded here, and written by the next {@link #commitProcessedOffsets()}. Nothing is committed while
+     * chunks of a split message are pending, so that the chunks are read again after a restart; the offsets are
+     * committed by the first commit after the message is complete.
+     */
     @Override
     public void commit() {
         if (autoCommitEnabled) {
             LOG.debug("Auto commit is disabled, not committing.");
+        } else if (hasIncompleteMessages()) {
+            LOG.debug("Split messages are incomplete, not committing offset: {}", lastSeenOffset);
+        } else if (commitIntervalMs > 0) {
+            synchronized (processedOffsets) {
+                processedOffsets.putAll(consumedOffsets);
+                processedOffsetsChanged = true;
+            }
         } else {
             consumerConnector.commitOffsets();
             LOG.debug("Committed offset: {}", lastSeenOffset);
         }
     }
+
+    /**
+     * Commit the offsets recorded by {@link #commit()} since the last call. Unlike {@link #commit()}, this can be
+     * called from any thread, as it never commits the offset of a message that is still being processed.
+     */
+    public void commitProcessedOffsets() {
+        Map<TopicAndPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        synchronized (processedOffsets) {
+            if (!processedOffsetsChanged) {
+                return;
+            }
+            for (Map.Entry<TopicAndPartition, Long> entry : processedOffsets.entrySet()) {
+                offsets.put(entry.getKey(), new OffsetAndMetadata(new OffsetMetadata(entry.getValue(), ""),
+                        OffsetCommitRequest.DEFAULT_TIMESTAMP, OffsetCommitRequest.DEFAULT_TIMESTAMP));
+            }
+            processedOffsetsChanged = false;
+        }
+
+        try {
+            consumerConnector.commitOffsets(offsets, true);
+        } catch (RuntimeException e) {
+            synchronized (processedOffsets) {
+                processedOffsetsChanged = true;
+            }
+            throw e;
+        }
+        LOG.debug("Committed offsets: consumerId: {}, offsets - {}", consumerId, offsets);
+    }
 }
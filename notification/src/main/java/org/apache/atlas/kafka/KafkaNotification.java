@@ -29,6 +29,7 @@ import kafka.utils.Time;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.notification.AbstractNotification;
+import org.apache.atlas.notification.EncodedMessage;
 import org.apache.atlas.notification.MessageDeserializer;
 import org.apache.atlas.notification.NotificationConsumer;
 import org.apache.atlas.notification.NotificationException;
@@ -36,7 +37,9 @@ import org.apache.atlas.service.Service;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationConverter;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
@@ -58,7 +61,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Kafka specific access point to the Atlas notification framework.
@@ -76,12 +86,30 @@ public class KafkaNotification extends AbstractNotification implements Service {
 
     protected static final String CONSUMER_GROUP_ID_PROPERTY = "group.id";
 
+    public static final String SEND_ASYNC_PROPERTY = AbstractNotification.PROPERTY_PREFIX + ".send.async";
+    public static final String SEND_MAX_IN_FLIGHT_PROPERTY =
+            AbstractNotification.PROPERTY_PREFIX + ".send.max.inflight";
+    public static final int DEFAULT_SEND_MAX_IN_FLIGHT = 1000;
+    public static final String DEFAULT_PRODUCER_RETRIES = "3";
+    public static final long DEFAULT_MAX_BLOCK_MS = 60000;
+    public static final String CONSUMER_COMMIT_INTERVAL_MS_PROPERTY =
+            AbstractNotification.PROPERTY_PREFIX + ".consumer.commit.interval.ms";
+
     private KafkaServer kafkaServer;
     private ServerCnxnFactory factory;
     private Properties properties;
 
-    private KafkaProducer producer = null;
+    private Producer producer = null;
     private List<ConsumerConnector> consumerConnectors = new ArrayList<>();
+    private final List<org.apache.atlas.kafka.KafkaConsumer<?>> kafkaConsumers = new ArrayList<>();
+
+    private long commitIntervalMs = 0;
+    private ScheduledExecutorService commitExecutor;
+
+    private boolean asyncSend = false;
+    private Semaphore inFlight;
+    private long maxBlockMs = DEFAULT_MAX_BLOCK_MS;
+    private final AtomicReference<Exception> sendFailure = new AtomicReference<>();
 
     private static final Map<NotificationType, String> TOPIC_MAP = new HashMap<NotificationType, String>() {
         {
@@ -119,6 +147,21 @@ public class KafkaNotification extends AbstractNotification implements Service {
                 "org.apache.kafka.common.serialization.StringDeserializer");
         properties.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, "roundrobin");
         properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "smallest");
+
+        //Transient send failures are retried by the producer. Only one request per connection is kept in flight
+        //so that retries don't reorder the messages of a partition.
+        if (!properties.containsKey(ProducerConfig.RETRIES_CONFIG)) {
+            properties.put(ProducerConfig.RETRIES_CONFIG, DEFAULT_PRODUCER_RETRIES);
+        }
+        if (!properties.containsKey(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION)) {
+            properties.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, "1");
+        }
+
+        asyncSend = applicationProperties.getBoolean(SEND_ASYNC_PROPERTY, false);
+        inFlight = new Semaphore(applicationProperties.getInt(SEND_MAX_IN_FLIGHT_PROPERTY, DEFAULT_SEND_MAX_IN_FLIGHT));
+        maxBlockMs = Long.parseLong(properties.getProperty(ProducerConfig.MAX_BLOCK_MS_CONFIG,
+                String.valueOf(DEFAULT_MAX_BLOCK_MS)));
+        commitIntervalMs = applicationProperties.getLong(CONSUMER_COMMIT_INTERVAL_MS_PROPERTY, 0);
     }
 
     @VisibleForTesting
@@ -186,6 +229,9 @@ public class KafkaNotification extends AbstractNotification implements Service {
                         createKafkaConsumer(notificationType.getClassType(), notificationType.getDeserializer(),
                                 stream, i, consumerConnector, autoCommitEnabled);
                 consumers.add(kafkaConsumer);
+                if (!autoCommitEnabled && commitIntervalMs > 0) {
+                    addCommittingConsumer(kafkaConsumer);
+                }
             }
             consumerConnectors.add(consumerConnector);
         }
@@ -193,6 +239,18 @@ public class KafkaNotification extends AbstractNotification implements Service {
         return consumers;
     }
 
+    @Override
+    public void flush() throws NotificationException {
+        if (producer != null) {
+            producer.flush();
+        }
+
+        Exception e = sendFailure.getAndSet(null);
+        if (e != null) {
+            throw new NotificationException(e);
+        }
+    }
+
     @Override
     public void close() {
         if (producer != null) {
@@ -200,6 +258,20 @@ public class KafkaNotification extends AbstractNotification implements Service {
             producer = null;
         }
 
+        Exception e = sendFailure.getAndSet(null);
+        if (e != null) {
+            LOG.error("Failed to send notifications before close", e);
+        }
+
+        synchronized (kafkaConsumers) {
+            if (commitExecutor != null) {
+                commitExecutor.shutdownNow();
+                commitExecutor = null;
+            }
+            commitProcessedOffsets();
+            kafkaConsumers.clear();
+        }
+
         for (ConsumerConnector consumerConnector : consumerConnectors) {
             consumerConnector.shutdown();
         }
@@ -216,9 +288,14 @@ public class KafkaNotification extends AbstractNotification implements Service {
         }
 
         String topic = TOPIC_MAP.get(type);
+        if (asyncSend) {
+            sendAsync(topic, messages);
+            return;
+        }
+
         List<Future<RecordMetadata>> futures = new ArrayList<>();
         for (String message : messages) {
-            ProducerRecord record = new ProducerRecord(topic, message);
+            ProducerRecord record = new ProducerRecord(topic, getMessageKey(message), message);
             LOG.debug("Sending message for topic {}: {}", topic, message);
             futures.add(producer.send(record));
         }
@@ -236,6 +313,97 @@ public class KafkaNotification extends AbstractNotification implements Service {
 
     // ----- helper methods --------------------------------------------------
 
+    /**
+     * Send the given messages without waiting for the broker to acknowledge them. At most
+     * {@link #SEND_MAX_IN_FLIGHT_PROPERTY} messages are unacknowledged at any time; further sends block until
+     * earlier ones complete, and fail after waiting for max.block.ms, like a send to a full producer buffer.
+     * Failures are logged and reported by the next {@link #flush()}.
+     */
+    private void sendAsync(final String topic, String... messages) throws NotificationException {
+        for (String message : messages) {
+            boolean acquired;
+            try {
+                acquired = inFlight.tryAcquire(maxBlockMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NotificationException(e);
+            }
+            if (!acquired) {
+                throw new NotificationException(new TimeoutException(
+                        "Timed out after " + maxBlockMs + " ms waiting for unacknowledged messages to complete"));
+            }
+
+            ProducerRecord record = new ProducerRecord(topic, getMessageKey(message), message);
+            LOG.debug("Sending message for topic {}: {}", topic, message);
+            try {
+                producer.send(record, new Callback() {
+                    @Override
+                    public void onCompletion(RecordMetadata response, Exception exception) {
+                        inFlight.release();
+                        if (exception != null) {
+                            LOG.error("Failed to send message for topic - {}", topic, exception);
+                            sendFailure.compareAndSet(null, exception);
+                        } else {
+                            LOG.debug("Sent message for topic - {}, partition - {}, offset - {}", response.topic(),
+                                    response.partition(), response.offset());
+                        }
+                    }
+                });
+            } catch (Exception e) {
+                inFlight.release();
+                throw new NotificationException(e);
+            }
+        }
+    }
+
+    /**
+     * Get the key of the given message. All chunks of a split message have the same key, so that they are sent to
+     * the same partition and read in order by a single consumer; other messages have no key.
+     */
+    private static String getMessageKey(String message) {
+        return EncodedMessage.isEncoded(message) ? EncodedMessage.getMsgId(message) : null;
+    }
+
+    /**
+     * Register a consumer whose processed offsets are committed every {@link #CONSUMER_COMMIT_INTERVAL_MS_PROPERTY}
+     * milliseconds, instead of after every processed message.
+     */
+    private void addCommittingConsumer(org.apache.atlas.kafka.KafkaConsumer<?> kafkaConsumer) {
+        synchronized (kafkaConsumers) {
+            kafkaConsumers.add(kafkaConsumer);
+
+            if (commitExecutor == null) {
+                commitExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "atlas-kafka-offset-commit");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                commitExecutor.scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (kafkaConsumers) {
+                            commitProcessedOffsets();
+                        }
+                    }
+                }, commitIntervalMs, commitIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // called with the kafkaConsumers lock held
+    private void commitProcessedOffsets() {
+        for (org.apache.atlas.kafka.KafkaConsumer<?> kafkaConsumer : kafkaConsumers) {
+            try {
+                kafkaConsumer.commitProcessedOffsets();
+            } catch (Exception e) {
+                LOG.warn("Failed to commit consumer offsets, will retry", e);
+            }
+        }
+    }
+
     /**
      * Create a Kafka consumer connector from the given properties.
      *
@@ -262,7 +430,7 @@ public class KafkaNotification extends AbstractNotification implements Service {
     createKafkaConsumer(Class<T> type, MessageDeserializer<T> deserializer, KafkaStream stream,
                         int consumerId, ConsumerConnector consumerConnector, boolean autoCommitEnabled) {
         return new org.apache.atlas.kafka.KafkaConsumer<T>(deserializer, stream,
-                consumerId, consumerConnector, autoCommitEnabled);
+                consumerId, consumerConnector, autoCommitEnabled, commitIntervalMs);
     }
 
     // Get properties for consumer request
@@ -292,10 +460,21 @@ public class KafkaNotification extends AbstractNotification implements Service {
 
     private synchronized void createProducer() {
         if (producer == null) {
-            producer = new KafkaProducer(properties);
+            producer = createKafkaProducer(properties);
         }
     }
 
+    /**
+     * Create a Kafka producer from the given properties.
+     *
+     * @param producerProperties  the properties for creating the producer
+     *
+     * @return a new Kafka producer
+     */
+    protected Producer createKafkaProducer(Properties producerProperties) {
+        return new KafkaProducer(producerProperties);
+    }
+
     private URL getURL(String url) throws MalformedURLException {
         try {
             return new URL(url);
@@ -26,17 +26,27 @@ import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.apache.atlas.typesystem.IReferenceableInstance;
 import org.apache.atlas.typesystem.IStruct;
 import org.apache.atlas.typesystem.Referenceable;
 import org.apache.atlas.typesystem.Struct;
 import org.apache.atlas.typesystem.json.InstanceSerialization;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.apache.atlas.typesystem.types.EnumValue;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.slf4j.Logger;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,15 +56,15 @@ import java.util.Map;
  */
 public abstract class AbstractMessageDeserializer<T> extends VersionedMessageDeserializer<T> {
 
-    private static final Map<Type, JsonDeserializer> DESERIALIZER_MAP = new HashMap<>();
+    private static final Map<Type, Object> DESERIALIZER_MAP = new HashMap<>();
 
     static {
         DESERIALIZER_MAP.put(ImmutableList.class, new ImmutableListDeserializer());
         DESERIALIZER_MAP.put(ImmutableMap.class, new ImmutableMapDeserializer());
         DESERIALIZER_MAP.put(JSONArray.class, new JSONArrayDeserializer());
         DESERIALIZER_MAP.put(IStruct.class, new StructDeserializer());
-        DESERIALIZER_MAP.put(IReferenceableInstance.class, new ReferenceableDeserializer());
-        DESERIALIZER_MAP.put(Referenceable.class, new ReferenceableDeserializer());
+        DESERIALIZER_MAP.put(IReferenceableInstance.class, new ReferenceableAdapter());
+        DESERIALIZER_MAP.put(Referenceable.class, new ReferenceableAdapter());
     }
 
 
@@ -65,12 +75,13 @@ public abstract class AbstractMessageDeserializer<T> extends VersionedMessageDes
      *
      * @param versionedMessageType  the type of the versioned message
      * @param expectedVersion       the expected message version
-     * @param deserializerMap       map of individual deserializers used to define this message deserializer
+     * @param deserializerMap       map of individual deserializers, type adapters or type adapter factories used to
+     *                              define this message deserializer
      * @param notificationLogger    logger for message version mismatch
      */
     public AbstractMessageDeserializer(Type versionedMessageType,
                                        MessageVersion expectedVersion,
-                                       Map<Type, JsonDeserializer> deserializerMap,
+                                       Map<Type, ?> deserializerMap,
                                        Logger notificationLogger) {
         super(versionedMessageType, expectedVersion, getDeserializer(deserializerMap), notificationLogger);
     }
@@ -78,15 +89,19 @@ public abstract class AbstractMessageDeserializer<T> extends VersionedMessageDes
 
     // ----- helper methods --------------------------------------------------
 
-    private static Gson getDeserializer(Map<Type, JsonDeserializer> deserializerMap) {
+    private static Gson getDeserializer(Map<Type, ?> deserializerMap) {
         GsonBuilder builder = new GsonBuilder();
 
-        for (Map.Entry<Type, JsonDeserializer> entry : DESERIALIZER_MAP.entrySet()) {
+        for (Map.Entry<Type, Object> entry : DESERIALIZER_MAP.entrySet()) {
             builder.registerTypeAdapter(entry.getKey(), entry.getValue());
         }
 
-        for (Map.Entry<Type, JsonDeserializer> entry : deserializerMap.entrySet()) {
-            builder.registerTypeAdapter(entry.getKey(), entry.getValue());
+        for (Map.Entry<Type, ?> entry : deserializerMap.entrySet()) {
+            if (entry.getValue() instanceof TypeAdapterFactory) {
+                builder.registerTypeAdapterFactory((TypeAdapterFactory) entry.getValue());
+            } else {
+                builder.registerTypeAdapter(entry.getKey(), entry.getValue());
+            }
         }
         return builder.create();
     }
@@ -152,14 +167,136 @@ public abstract class AbstractMessageDeserializer<T> extends VersionedMessageDes
     }
 
     /**
-     * Deserializer for Referenceable.
+     * Streaming reader for Referenceable.
+     *
+     * Reads the JSON written by InstanceSerialization token by token straight into Referenceable, Struct, Id and
+     * EnumValue instances, without building an intermediate JSON tree or string. Writing uses InstanceSerialization,
+     * like {@link AbstractNotification.ReferenceableSerializer}.
      */
-    protected static final class ReferenceableDeserializer implements JsonDeserializer<IReferenceableInstance> {
+    protected static final class ReferenceableAdapter extends TypeAdapter<IReferenceableInstance> {
+        private static final String TYPE_HINT_FIELD = "jsonClass";
+        private static final String REFERENCE_HINT = "$_Reference";
+        private static final String STRUCT_HINT = "$_Struct";
+        private static final String ID_HINT = "$_Id";
+
+        @Override
+        public void write(JsonWriter out, IReferenceableInstance value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.jsonValue(InstanceSerialization.toJson(value, true));
+        }
+
         @Override
-        public IReferenceableInstance deserialize(final JsonElement json, final Type type,
-                                                  final JsonDeserializationContext context) {
+        public IReferenceableInstance read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Object value = readValue(in);
+            if (!(value instanceof IReferenceableInstance)) {
+                throw new JsonParseException("Expected a referenceable instance but found " + value);
+            }
+            return (IReferenceableInstance) value;
+        }
+
+        private static Object readValue(JsonReader in) throws IOException {
+            switch (in.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new HashMap<>();
+                in.beginObject();
+                while (in.hasNext()) {
+                    map.put(in.nextName(), readValue(in));
+                }
+                in.endObject();
+                return convert(map);
+
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                in.beginArray();
+                while (in.hasNext()) {
+                    list.add(readValue(in));
+                }
+                in.endArray();
+                return list;
+
+            case STRING:
+                return in.nextString();
+
+            case NUMBER:
+                return readNumber(in.nextString());
+
+            case BOOLEAN:
+                return in.nextBoolean();
+
+            case NULL:
+                in.nextNull();
+                return null;
+
+            default:
+                throw new JsonParseException("Unexpected token " + in.peek());
+            }
+        }
+
+        private static Number readNumber(String number) {
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                BigInteger value = new BigInteger(number);
+                return value.bitLength() < Long.SIZE ? (Number) value.longValue() : value;
+            }
+            return Double.valueOf(number);
+        }
 
-            return InstanceSerialization.fromJsonReferenceable(json.toString(), true);
+        // same rules as InstanceSerialization.InstanceJavaConversion, applied to an object whose values are
+        // already converted
+        @SuppressWarnings("unchecked")
+        private static Object convert(Map<String, Object> map) {
+            Object ordinal = map.get("ordinal");
+            if (map.size() == 2 && map.containsKey("value") && ordinal instanceof Number) {
+                return new EnumValue(String.valueOf(map.get("value")), ((Number) ordinal).intValue());
+            }
+
+            Object hint = map.get(TYPE_HINT_FIELD);
+            Object typeName = map.get("typeName");
+            if (!(hint instanceof String) || !(typeName instanceof String)) {
+                return map;
+            }
+
+            Object values = map.get("values");
+            if (((String) hint).endsWith(REFERENCE_HINT) && values instanceof Map
+                    && map.get("traitNames") instanceof List && isStructMap(map.get("traits"))) {
+                Object id = map.get("id");
+                return new Referenceable(id instanceof Id ? (Id) id : new Id((String) typeName), (String) typeName,
+                        (Map<String, Object>) values, (List<String>) map.get("traitNames"),
+                        (Map<String, IStruct>) map.get("traits"));
+            }
+
+            if (((String) hint).endsWith(STRUCT_HINT) && values instanceof Map) {
+                return new Struct((String) typeName, (Map<String, Object>) values);
+            }
+
+            Object id = map.get("id");
+            Object version = map.get("version");
+            if (((String) hint).endsWith(ID_HINT) && id instanceof String && version instanceof Number) {
+                Object state = map.get("state");
+                return new Id((String) id, ((Number) version).intValue(), (String) typeName,
+                        state instanceof String ? (String) state : null);
+            }
+
+            return map;
+        }
+
+        private static boolean isStructMap(Object value) {
+            if (!(value instanceof Map)) {
+                return false;
+            }
+            for (Object struct : ((Map<?, ?>) value).values()) {
+                if (!(struct instanceof Struct)) {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 }
@@ -34,8 +34,11 @@ import org.codehaus.jettison.json.JSONArray;
 
 
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Abstract notification interface implementation.
@@ -48,8 +51,20 @@ public abstract class AbstractNotification implements NotificationInterface {
     public static final MessageVersion CURRENT_MESSAGE_VERSION = new MessageVersion("1.0.0");
 
     public static final String PROPERTY_EMBEDDED = PROPERTY_PREFIX + ".embedded";
+    public static final String PROPERTY_MESSAGE_COMPRESS = PROPERTY_PREFIX + ".message.compress";
+    public static final String PROPERTY_MESSAGE_COMPRESS_THRESHOLD = PROPERTY_PREFIX + ".message.compress.threshold";
+    public static final String PROPERTY_MESSAGE_MAX_LENGTH = PROPERTY_PREFIX + ".message.max.length";
+
+    public static final int DEFAULT_MESSAGE_COMPRESS_THRESHOLD = 8 * 1024;
+    public static final int DEFAULT_MESSAGE_MAX_LENGTH = 900 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
     private final boolean embedded;
     private final boolean isHAEnabled;
+    private final boolean compress;
+    private final int compressThreshold;
+    private final int maxMessageLength;
 
     /**
      * Used for message serialization.
@@ -65,23 +80,30 @@ public abstract class AbstractNotification implements NotificationInterface {
     public AbstractNotification(Configuration applicationProperties) throws AtlasException {
         this.embedded = applicationProperties.getBoolean(PROPERTY_EMBEDDED, false);
         this.isHAEnabled = HAConfiguration.isHAEnabled(applicationProperties);
+        this.compress = applicationProperties.getBoolean(PROPERTY_MESSAGE_COMPRESS, false);
+        this.compressThreshold =
+                applicationProperties.getInt(PROPERTY_MESSAGE_COMPRESS_THRESHOLD, DEFAULT_MESSAGE_COMPRESS_THRESHOLD);
+        this.maxMessageLength = applicationProperties.getInt(PROPERTY_MESSAGE_MAX_LENGTH, DEFAULT_MESSAGE_MAX_LENGTH);
     }
 
     @VisibleForTesting
     protected AbstractNotification() {
         embedded = false;
         isHAEnabled = false;
+        compress = false;
+        compressThreshold = DEFAULT_MESSAGE_COMPRESS_THRESHOLD;
+        maxMessageLength = DEFAULT_MESSAGE_MAX_LENGTH;
     }
 
     // ----- NotificationInterface -------------------------------------------
 
     @Override
     public <T> void send(NotificationType type, List<T> messages) throws NotificationException {
-        String[] strMessages = new String[messages.size()];
-        for (int index = 0; index < messages.size(); index++) {
-            strMessages[index] = getMessageJson(messages.get(index));
+        List<String> strMessages = new ArrayList<>(messages.size());
+        for (T message : messages) {
+            addMessageJson(getMessageJson(message), strMessages);
         }
-        sendInternal(type, strMessages);
+        sendInternal(type, strMessages.toArray(new String[strMessages.size()]));
     }
 
     @Override
@@ -89,6 +111,11 @@ public abstract class AbstractNotification implements NotificationInterface {
         send(type, Arrays.asList(messages));
     }
 
+    @Override
+    public void flush() throws NotificationException {
+        // messages are sent synchronously by default, nothing to wait for
+    }
+
     // ----- AbstractNotification --------------------------------------------
 
     /**
@@ -136,6 +163,48 @@ public abstract class AbstractNotification implements NotificationInterface {
     }
 
 
+    /**
+     * Add the given notification message JSON to the messages to send. When compression is enabled, messages whose
+     * UTF-8 encoding is longer than the compression threshold are compressed, and messages that are still longer than
+     * the maximum message length are split into several chunks that are reassembled by the consumer. Each chunk,
+     * including its envelope, fits in the maximum message length.
+     *
+     * @param messageJson  the notification message JSON
+     * @param strMessages  the messages to send
+     */
+    @VisibleForTesting
+    void addMessageJson(String messageJson, List<String> strMessages) {
+        int messageLength = messageJson.getBytes(UTF_8).length;
+        boolean compressMessage = compress && messageLength > compressThreshold;
+        boolean splitMessage = maxMessageLength > 0 && messageLength > maxMessageLength;
+
+        if (!compressMessage && !splitMessage) {
+            strMessages.add(messageJson);
+            return;
+        }
+
+        EncodedMessage.CompressionKind kind =
+                compressMessage ? EncodedMessage.CompressionKind.GZIP : EncodedMessage.CompressionKind.NONE;
+        String encoded = EncodedMessage.encode(messageJson, kind);
+        String msgId = UUID.randomUUID().toString();
+
+        // the encoded content is base64, so its length in characters is its length in bytes
+        int chunkLength = encoded.length();
+        if (maxMessageLength > 0) {
+            int envelopeLength =
+                    GSON.toJson(new EncodedMessage(msgId, kind, encoded.length(), encoded.length(), "")).length();
+            chunkLength = Math.max(1, maxMessageLength - envelopeLength);
+        }
+        int chunkCount = Math.max(1, (encoded.length() + chunkLength - 1) / chunkLength);
+
+        for (int index = 0; index < chunkCount; index++) {
+            int start = index * chunkLength;
+            String chunk = encoded.substring(start, Math.min(start + chunkLength, encoded.length()));
+            strMessages.add(GSON.toJson(new EncodedMessage(msgId, kind, index, chunkCount, chunk)));
+        }
+    }
+
+
     // ----- serializers -----------------------------------------------------
 
     /**
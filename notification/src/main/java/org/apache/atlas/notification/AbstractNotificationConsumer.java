@@ -17,6 +17,10 @@
  */
 package org.apache.atlas.notification;
 
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 /**
  * Abstract notification consumer.
  */
@@ -27,6 +31,11 @@ public abstract class AbstractNotificationConsumer<T> implements NotificationCon
      */
     private final MessageDeserializer<T> deserializer;
 
+    /**
+     * Ids of the split messages of which some, but not all, chunks were read by this consumer, oldest first.
+     */
+    private final Set<String> incompleteMessageIds = new LinkedHashSet<>();
+
 
     // ----- Constructors ----------------------------------------------------
 
@@ -61,7 +70,13 @@ public abstract class AbstractNotificationConsumer<T> implements NotificationCon
 
     @Override
     public T next() {
-        return deserializer.deserialize(getNext());
+        T message = deserialize(getNext());
+
+        // chunks of a split message are consumed until the message is complete
+        while (message == null) {
+            message = deserialize(getNext());
+        }
+        return message;
     }
 
     @Override
@@ -70,4 +85,42 @@ public abstract class AbstractNotificationConsumer<T> implements NotificationCon
     }
 
     public abstract void commit();
+
+    /**
+     * Determine whether chunks of a split message were read that can't be deserialized yet. The offsets of these
+     * chunks must not be committed, as the chunks are only kept in memory until the message is complete.
+     *
+     * @return true if some split messages read by this consumer are not complete
+     */
+    protected boolean hasIncompleteMessages() {
+        synchronized (incompleteMessageIds) {
+            return !incompleteMessageIds.isEmpty();
+        }
+    }
+
+
+    // ----- helper methods --------------------------------------------------
+
+    private T deserialize(String messageJson) {
+        T message = deserializer.deserialize(messageJson);
+
+        if (EncodedMessage.isEncoded(messageJson)) {
+            String msgId = EncodedMessage.getMsgId(messageJson);
+            synchronized (incompleteMessageIds) {
+                if (message == null) {
+                    incompleteMessageIds.add(msgId);
+
+                    // the deserializer drops the oldest incomplete messages beyond this limit
+                    if (incompleteMessageIds.size() > VersionedMessageDeserializer.MAX_PENDING_SPLIT_MESSAGES) {
+                        Iterator<String> iterator = incompleteMessageIds.iterator();
+                        iterator.next();
+                        iterator.remove();
+                    }
+                } else {
+                    incompleteMessageIds.remove(msgId);
+                }
+            }
+        }
+        return message;
+    }
 }
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A notification message that is carried in encoded form, optionally compressed and split into several chunks.
+ * The encoded content is the JSON of a versioned message.
+ */
+public class EncodedMessage {
+
+    /**
+     * The version of encoded messages. Consumers that don't know about encoded messages reject them as a newer
+     * version instead of reading them as empty messages.
+     */
+    public static final MessageVersion ENCODED_MESSAGE_VERSION = new MessageVersion("1.1.0");
+
+    /**
+     * Prefix of the JSON of every encoded message; msgId is serialized as the first field.
+     */
+    public static final String JSON_PREFIX = "{\"msgId\":";
+
+    public enum CompressionKind { NONE, GZIP }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final String msgId;
+    private final MessageVersion version;
+    private final CompressionKind msgCompressionKind;
+    private final int msgSplitIdx;
+    private final int msgSplitCount;
+    private final String msgEncoded;
+
+
+    // ----- Constructors ----------------------------------------------------
+
+    /**
+     * Create an encoded message.
+     *
+     * @param msgId               id shared by all chunks of the message
+     * @param msgCompressionKind  the compression applied to the message
+     * @param msgSplitIdx         index of this chunk
+     * @param msgSplitCount       number of chunks of the message
+     * @param msgEncoded          the encoded content of this chunk
+     */
+    public EncodedMessage(String msgId, CompressionKind msgCompressionKind, int msgSplitIdx, int msgSplitCount,
+                          String msgEncoded) {
+        this.msgId = msgId;
+        this.version = ENCODED_MESSAGE_VERSION;
+        this.msgCompressionKind = msgCompressionKind;
+        this.msgSplitIdx = msgSplitIdx;
+        this.msgSplitCount = msgSplitCount;
+        this.msgEncoded = msgEncoded;
+    }
+
+
+    // ----- accessors -------------------------------------------------------
+
+    public String getMsgId() {
+        return msgId;
+    }
+
+    public MessageVersion getVersion() {
+        return version;
+    }
+
+    public CompressionKind getMsgCompressionKind() {
+        return msgCompressionKind;
+    }
+
+    public int getMsgSplitIdx() {
+        return msgSplitIdx;
+    }
+
+    public int getMsgSplitCount() {
+        return msgSplitCount;
+    }
+
+    public String getMsgEncoded() {
+        return msgEncoded;
+    }
+
+
+    // ----- utility methods -------------------------------------------------
+
+    /**
+     * Determine whether the given notification message JSON is an encoded message.
+     *
+     * @param messageJson  the notification message JSON
+     *
+     * @return true if the message is an encoded message
+     */
+    public static boolean isEncoded(String messageJson) {
+        return messageJson != null && messageJson.startsWith(JSON_PREFIX);
+    }
+
+    /**
+     * Get the message id of the given encoded message JSON without parsing the whole message.
+     *
+     * @param messageJson  the encoded message JSON
+     *
+     * @return the message id
+     */
+    public static String getMsgId(String messageJson) {
+        int start = messageJson.indexOf('"', JSON_PREFIX.length()) + 1;
+        return messageJson.substring(start, messageJson.indexOf('"', start));
+    }
+
+    /**
+     * Encode the given string.
+     *
+     * @param str   the string to encode
+     * @param kind  the compression to apply
+     *
+     * @return the base64 encoded, optionally compressed, UTF-8 bytes of the string
+     */
+    public static String encode(String str, CompressionKind kind) {
+        byte[] bytes = str.getBytes(UTF_8);
+
+        if (kind == CompressionKind.GZIP) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+            try (OutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to compress notification message", e);
+            }
+            bytes = out.toByteArray();
+        }
+
+        return DatatypeConverter.printBase64Binary(bytes);
+    }
+
+    /**
+     * Decode the given string.
+     *
+     * @param encoded  the encoded string
+     * @param kind     the compression that was applied
+     *
+     * @return the decoded string
+     */
+    public static String decode(String encoded, CompressionKind kind) {
+        byte[] bytes = DatatypeConverter.parseBase64Binary(encoded);
+
+        if (kind == CompressionKind.GZIP) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+            try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = gzip.read(buffer)) > 0) {
+                    out.write(buffer, 0, n);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to decompress notification message", e);
+            }
+            bytes = out.toByteArray();
+        }
+
+        return new String(bytes, UTF_8);
+    }
+}
@@ -129,6 +129,13 @@ public interface NotificationInterface {
      */
     <T> void send(NotificationType type, List<T> messages) throws NotificationException;
 
+    /**
+     * Wait until all messages sent so far are acknowledged.
+     *
+     * @throws NotificationException if any message sent since the last flush failed
+     */
+    void flush() throws NotificationException;
+
     /**
      * Shutdown any notification producers and consumers associated with this interface instance.
      */
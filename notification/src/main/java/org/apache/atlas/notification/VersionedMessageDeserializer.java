@@ -23,6 +23,8 @@ import org.slf4j.Logger;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Deserializer that works with versioned messages.  The version of each deserialized message is checked against an
@@ -33,11 +35,28 @@ public abstract class VersionedMessageDeserializer<T> implements MessageDeserial
     public static final String VERSION_MISMATCH_MSG =
         "Notification message version mismatch. Expected %s but recieved %s. Message %s";
 
+    /**
+     * Maximum number of split messages that are waiting for more chunks.
+     */
+    public static final int MAX_PENDING_SPLIT_MESSAGES = 100;
+
     private final Type versionedMessageType;
     private final MessageVersion expectedVersion;
     private final Logger notificationLogger;
     private final Gson gson;
 
+    // chunks of split messages by message id, shared by all consumers using this deserializer
+    private final Map<String, String[]> pendingChunks = new LinkedHashMap<String, String[]>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+            if (size() > MAX_PENDING_SPLIT_MESSAGES) {
+                notificationLogger.error("Dropping incomplete split notification message {}", eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+
 
     // ----- Constructors ----------------------------------------------------
 
@@ -60,8 +79,20 @@ public abstract class VersionedMessageDeserializer<T> implements MessageDeserial
 
     // ----- MessageDeserializer ---------------------------------------------
 
+    /**
+     * {@inheritDoc}
+     *
+     * Returns null if the given JSON is a chunk of a split message that is not complete yet.
+     */
     @Override
     public T deserialize(String messageJson) {
+        if (EncodedMessage.isEncoded(messageJson)) {
+            messageJson = decode(gson.fromJson(messageJson, EncodedMessage.class));
+            if (messageJson == null) {
+                return null;
+            }
+        }
+
         VersionedMessage<T> versionedMessage = gson.fromJson(messageJson, versionedMessageType);
 
         // older style messages not wrapped with VersionedMessage
@@ -77,6 +108,47 @@ public abstract class VersionedMessageDeserializer<T> implements MessageDeserial
 
     // ----- helper methods --------------------------------------------------
 
+    /**
+     * Decode the given encoded message, collecting the chunks of split messages.
+     *
+     * @param encodedMessage  the encoded message
+     *
+     * @return the decoded message JSON, or null if more chunks are needed
+     */
+    private String decode(EncodedMessage encodedMessage) {
+        String encoded;
+        int splitCount = encodedMessage.getMsgSplitCount();
+
+        if (splitCount <= 1) {
+            encoded = encodedMessage.getMsgEncoded();
+        } else {
+            String[] chunks;
+            synchronized (pendingChunks) {
+                chunks = pendingChunks.get(encodedMessage.getMsgId());
+                if (chunks == null) {
+                    chunks = new String[splitCount];
+                    pendingChunks.put(encodedMessage.getMsgId(), chunks);
+                }
+                chunks[encodedMessage.getMsgSplitIdx()] = encodedMessage.getMsgEncoded();
+
+                for (String chunk : chunks) {
+                    if (chunk == null) {
+                        return null;
+                    }
+                }
+                pendingChunks.remove(encodedMessage.getMsgId());
+            }
+
+            StringBuilder builder = new StringBuilder();
+            for (String chunk : chunks) {
+                builder.append(chunk);
+            }
+            encoded = builder.toString();
+        }
+
+        return EncodedMessage.decode(encoded, encodedMessage.getMsgCompressionKind());
+    }
+
     /**
      * Check the message version against the expected version.
      *
@@ -18,7 +18,6 @@
 
 package org.apache.atlas.notification.hook;
 
-import com.google.gson.JsonDeserializer;
 import org.apache.atlas.notification.AbstractMessageDeserializer;
 import org.apache.atlas.notification.AbstractNotification;
 import org.apache.atlas.notification.NotificationInterface;
@@ -53,8 +52,8 @@ public class HookMessageDeserializer extends AbstractMessageDeserializer<HookNot
 
     // ----- helper methods --------------------------------------------------
 
-    private static Map<Type, JsonDeserializer> getDeserializerMap() {
-        return Collections.<Type, JsonDeserializer>singletonMap(
+    private static Map<Type, Object> getDeserializerMap() {
+        return Collections.<Type, Object>singletonMap(
             NotificationInterface.HOOK_NOTIFICATION_CLASS, new HookNotification());
     }
 }
@@ -17,11 +17,14 @@
  */
 package org.apache.atlas.notification.hook;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.Gson;
 import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.apache.atlas.typesystem.Referenceable;
 import org.apache.atlas.typesystem.TypesDef;
 import org.apache.atlas.typesystem.json.InstanceSerialization;
@@ -29,7 +32,7 @@ import org.apache.commons.lang.StringUtils;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -37,32 +40,151 @@ import java.util.List;
 /**
  * Contains the structure of messages transferred from hooks to atlas.
  */
-public class HookNotification implements JsonDeserializer<HookNotification.HookNotificationMessage> {
+public class HookNotification implements TypeAdapterFactory {
 
     @Override
-    public HookNotificationMessage deserialize(JsonElement json, Type typeOfT,
-                                               JsonDeserializationContext context) {
-        HookNotificationType type =
-                context.deserialize(((JsonObject) json).get("type"), HookNotificationType.class);
-        switch (type) {
-        case ENTITY_CREATE:
-            return context.deserialize(json, EntityCreateRequest.class);
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+        if (typeToken.getRawType() != HookNotificationMessage.class) {
+            return null;
+        }
+        return (TypeAdapter<T>) new HookNotificationMessageAdapter(gson);
+    }
+
+    /**
+     * Streaming reader for hook messages. The message type is serialized after the message specific fields, so all
+     * known fields are read first and the message is created from them at the end of the object. Messages are written
+     * field by field, as for their concrete class.
+     */
+    private static final class HookNotificationMessageAdapter extends TypeAdapter<HookNotificationMessage> {
+        private final Gson gson;
+        private final TypeAdapter<Referenceable> referenceableAdapter;
+        private final TypeAdapter<TypesDef> typesDefAdapter;
+
+        private HookNotificationMessageAdapter(Gson gson) {
+            this.gson = gson;
+            this.referenceableAdapter = gson.getAdapter(Referenceable.class);
+            this.typesDefAdapter = gson.getAdapter(TypesDef.class);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void write(JsonWriter out, HookNotificationMessage value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
+            // the factory only handles the base class, so this is the reflective adapter of the message class
+            TypeAdapter<HookNotificationMessage> adapter =
+                    (TypeAdapter<HookNotificationMessage>) gson.getAdapter(value.getClass());
+            adapter.write(out, value);
+        }
+
+        @Override
+        public HookNotificationMessage read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            HookNotificationType type = null;
+            String user = null;
+            List<Referenceable> entities = null;
+            Referenceable entity = null;
+            String typeName = null;
+            String attribute = null;
+            String attributeValue = null;
+            TypesDef typesDef = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                case "type":
+                    type = HookNotificationType.valueOf(in.nextString());
+                    break;
+
+                case "user":
+                    user = nextString(in);
+                    break;
+
+                case "entities":
+                    entities = readEntities(in);
+                    break;
+
+                case "entity":
+                    entity = referenceableAdapter.read(in);
+                    break;
+
+                case "typeName":
+                    typeName = nextString(in);
+                    break;
+
+                case "attribute":
+                    attribute = nextString(in);
+                    break;
+
+                case "attributeValue":
+                    attributeValue = nextString(in);
+                    break;
+
+                case "typesDef":
+                    typesDef = typesDefAdapter.read(in);
+                    break;
+
+                default:
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (type == null) {
+                throw new JsonParseException("Hook message without type");
+            }
 
-        case ENTITY_FULL_UPDATE:
-            return context.deserialize(json, EntityUpdateRequest.class);
+            switch (type) {
+            case ENTITY_CREATE:
+                return new EntityCreateRequest(user, entities);
 
-        case ENTITY_PARTIAL_UPDATE:
-            return context.deserialize(json, EntityPartialUpdateRequest.class);
+            case ENTITY_FULL_UPDATE:
+                return new EntityUpdateRequest(user, entities);
 
-        case ENTITY_DELETE:
-            return context.deserialize(json, EntityDeleteRequest.class);
+            case ENTITY_PARTIAL_UPDATE:
+                return new EntityPartialUpdateRequest(user, typeName, attribute, attributeValue, entity);
 
-        case TYPE_CREATE:
-        case TYPE_UPDATE:
-            return context.deserialize(json, TypeRequest.class);
+            case ENTITY_DELETE:
+                return new EntityDeleteRequest(user, typeName, attribute, attributeValue);
+
+            case TYPE_CREATE:
+            case TYPE_UPDATE:
+                return new TypeRequest(type, typesDef, user);
+
+            default:
+                throw new IllegalStateException("Unhandled type " + type);
+            }
+        }
 
-        default:
-            throw new IllegalStateException("Unhandled type " + type);
+        private List<Referenceable> readEntities(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            List<Referenceable> entities = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                entities.add(referenceableAdapter.read(in));
+            }
+            in.endArray();
+            return entities;
+        }
+
+        private static String nextString(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextString();
         }
     }
 
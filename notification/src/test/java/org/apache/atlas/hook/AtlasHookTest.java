@@ -21,13 +21,23 @@ package org.apache.atlas.hook;
 import org.apache.atlas.notification.NotificationException;
 import org.apache.atlas.notification.NotificationInterface;
 import org.apache.atlas.notification.hook.HookNotification;
+import org.apache.atlas.typesystem.Referenceable;
 import org.testng.annotations.Test;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 
 public class AtlasHookTest {
@@ -41,4 +51,35 @@ public class AtlasHookTest {
         AtlasHook.notifyEntities(hookNotificationMessages, 2);
         System.out.println("AtlasHook.notifyEntities() returns successfully");
     }
+
+    @Test
+    public void testSpooledMessagesAreOnlySentByDrainer() throws Exception {
+        File directory = Files.createTempDirectory("spool").toFile();
+        HookMessageSpool spool = new HookMessageSpool(directory, "test", 1024 * 1024);
+        NotificationInterface notifInterface = mock(NotificationInterface.class);
+        AtlasHook.notifInterface = notifInterface;
+        AtlasHook.spool = spool;
+        try {
+            List<HookNotification.HookNotificationMessage> messages = new ArrayList<>();
+            messages.add(new HookNotification.EntityCreateRequest("user", new Referenceable("hive_table")));
+            AtlasHook.notifyEntities(messages, 2);
+
+            //The caller only appends to the spool
+            verify(notifInterface, never()).send(any(NotificationInterface.NotificationType.class),
+                    anyListOf(HookNotification.HookNotificationMessage.class));
+            assertFalse(spool.isEmpty());
+
+            //An asynchronous send failure reported on flush keeps the batch in the spool
+            doThrow(new NotificationException(new Exception())).when(notifInterface).flush();
+            assertFalse(AtlasHook.drainSpoolBatch(0));
+            assertFalse(spool.isEmpty());
+
+            doNothing().when(notifInterface).flush();
+            assertTrue(AtlasHook.drainSpoolBatch(0));
+            assertTrue(spool.isEmpty());
+        } finally {
+            AtlasHook.spool = null;
+            spool.close();
+        }
+    }
 }
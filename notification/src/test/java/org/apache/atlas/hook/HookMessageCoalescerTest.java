@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hook;
+
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.notification.hook.HookNotification;
+import org.apache.atlas.typesystem.Referenceable;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class HookMessageCoalescerTest {
+
+    @Test
+    public void testDuplicateEntitiesAreCoalesced() throws Exception {
+        HookMessageCoalescer coalescer = new HookMessageCoalescer();
+
+        coalescer.add(Arrays.<HookNotification.HookNotificationMessage>asList(
+                new HookNotification.EntityUpdateRequest("user", table("t1", "v1"), table("t2", "v1")),
+                new HookNotification.EntityUpdateRequest("user", table("t1", "v2"))));
+
+        List<HookNotification.HookNotificationMessage> messages = coalescer.drain();
+
+        assertEquals(messages.size(), 1);
+        assertEquals(messages.get(0).getType(), HookNotification.HookNotificationType.ENTITY_FULL_UPDATE);
+        List<Referenceable> entities = ((HookNotification.EntityUpdateRequest) messages.get(0)).getEntities();
+        assertEquals(entities.size(), 2);
+        assertEquals(entities.get(0).get("comment"), "v2");
+        assertEquals(entities.get(1).get(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME), "t2");
+        assertTrue(coalescer.drain().isEmpty());
+    }
+
+    @Test
+    public void testReplacedEntityKeepsItsId() throws Exception {
+        HookMessageCoalescer coalescer = new HookMessageCoalescer();
+        Referenceable t1v1 = table("t1", "v1");
+        Referenceable column1 = column("c1", t1v1.getId());
+        Referenceable t1v2 = table("t1", "v2");
+        Id t1v2Id = t1v2.getId();
+        Referenceable column2 = column("c2", t1v2Id);
+
+        coalescer.add(Arrays.<HookNotification.HookNotificationMessage>asList(
+                new HookNotification.EntityCreateRequest("user", t1v1, column1),
+                new HookNotification.EntityCreateRequest("user", t1v2, column2)));
+
+        List<HookNotification.HookNotificationMessage> messages = coalescer.drain();
+
+        assertEquals(messages.size(), 1);
+        List<Referenceable> entities = ((HookNotification.EntityCreateRequest) messages.get(0)).getEntities();
+        assertEquals(entities.size(), 3);
+        assertEquals(entities.get(0).getId(), t1v1.getId());
+        assertEquals(entities.get(0).get("comment"), "v2");
+        assertEquals(entities.get(1).get("table"), t1v1.getId());
+        assertEquals(entities.get(2).get("table"), t1v1.getId());
+
+        // the added entities are not modified
+        assertSame(t1v2.getId(), t1v2Id);
+        assertSame(column2.get("table"), t1v2Id);
+    }
+
+    @Test
+    public void testEntitiesWithoutQualifiedNameAreNotCoalesced() throws Exception {
+        HookMessageCoalescer coalescer = new HookMessageCoalescer();
+        Referenceable process = new Referenceable("hive_process");
+        HookNotification.HookNotificationMessage message =
+                new HookNotification.EntityCreateRequest("user", table("t1", "v2"), process);
+
+        coalescer.add(Arrays.<HookNotification.HookNotificationMessage>asList(
+                new HookNotification.EntityCreateRequest("user", table("t1", "v1")), message,
+                new HookNotification.EntityCreateRequest("user", table("t1", "v3"))));
+
+        List<HookNotification.HookNotificationMessage> messages = coalescer.drain();
+
+        assertEquals(messages.size(), 3);
+        assertSame(messages.get(1), message);
+    }
+
+    @Test
+    public void testPartialUpdatesAreMerged() throws Exception {
+        HookMessageCoalescer coalescer = new HookMessageCoalescer();
+        Referenceable update1 = new Referenceable("hive_table");
+        update1.set("comment", "v1");
+        update1.set("owner", "o1");
+        Referenceable update2 = new Referenceable("hive_table");
+        update2.set("comment", "v2");
+
+        coalescer.add(Arrays.<HookNotification.HookNotificationMessage>asList(
+                new HookNotification.EntityPartialUpdateRequest("user", "hive_table",
+                        AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "t1", update1),
+                new HookNotification.EntityPartialUpdateRequest("user", "hive_table",
+                        AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "t1", update2)));
+
+        List<HookNotification.HookNotificationMessage> messages = coalescer.drain();
+
+        assertEquals(messages.size(), 1);
+        Referenceable entity = ((HookNotification.EntityPartialUpdateRequest) messages.get(0)).getEntity();
+        assertEquals(entity.get("comment"), "v2");
+        assertEquals(entity.get("owner"), "o1");
+
+        // the added update is not modified
+        assertFalse(update2.getValuesMap().containsKey("owner"));
+    }
+
+    @Test
+    public void testOrderIsKeptAcrossOtherMessages() throws Exception {
+        HookMessageCoalescer coalescer = new HookMessageCoalescer();
+
+        coalescer.add(Arrays.<HookNotification.HookNotificationMessage>asList(
+                new HookNotification.EntityUpdateRequest("user", table("t1", "v1")),
+                new HookNotification.EntityDeleteRequest("user", "hive_table",
+                        AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "t1"),
+                new HookNotification.EntityUpdateRequest("user", table("t1", "v2")),
+                new HookNotification.EntityUpdateRequest("other", table("t1", "v3"))));
+
+        List<HookNotification.HookNotificationMessage> messages = coalescer.drain();
+
+        assertEquals(messages.size(), 4);
+        assertEquals(messages.get(1).getType(), HookNotification.HookNotificationType.ENTITY_DELETE);
+        assertEquals(messages.get(3).getUser(), "other");
+    }
+
+    private Referenceable column(String name, Id table) {
+        Referenceable column = new Referenceable("hive_column");
+        column.set(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, name);
+        column.set("table", table);
+        return column;
+    }
+
+    private Referenceable table(String name, String comment) {
+        Referenceable table = new Referenceable("hive_table");
+        table.set(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, name);
+        table.set("comment", comment);
+        return table;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.hook;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class HookMessageSpoolTest {
+
+    private File directory;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("spool").toFile();
+    }
+
+    @Test
+    public void testMessagesAreReadInOrder() throws Exception {
+        HookMessageSpool spool = new HookMessageSpool(directory, "test", 1024);
+
+        assertTrue(spool.append(Arrays.asList("m1", "m2")));
+        assertTrue(spool.append(Collections.singletonList("m3")));
+        assertFalse(spool.isEmpty());
+
+        assertEquals(spool.read(2, 0), Arrays.asList("m1", "m2"));
+        // uncommitted messages are read again
+        assertEquals(spool.read(2, 0), Arrays.asList("m1", "m2"));
+        spool.commitRead();
+
+        assertEquals(spool.read(2, 0), Collections.singletonList("m3"));
+        spool.commitRead();
+        assertTrue(spool.isEmpty());
+        assertTrue(spool.read(2, 0).isEmpty());
+        spool.close();
+    }
+
+    @Test
+    public void testPendingMessagesAreReadAfterReopen() throws Exception {
+        HookMessageSpool spool = new HookMessageSpool(directory, "test", 1024);
+        spool.append(Arrays.asList("m1", "m2"));
+        spool.read(1, 0);
+        spool.commitRead();
+        spool.close();
+
+        spool = new HookMessageSpool(directory, "test", 1024);
+        assertEquals(spool.read(10, 0), Collections.singletonList("m2"));
+        spool.close();
+    }
+
+    @Test
+    public void testPartialMessageIsDroppedOnReopen() throws Exception {
+        HookMessageSpool spool = new HookMessageSpool(directory, "test", 1024);
+        spool.append(Arrays.asList("m1", "m2"));
+        spool.close();
+
+        try (OutputStream out = new FileOutputStream(new File(directory, "test.0.spool"), true)) {
+            out.write("{\"partial".getBytes("UTF-8"));
+        }
+
+        spool = new HookMessageSpool(directory, "test", 1024);
+        spool.append(Collections.singletonList("m3"));
+        assertEquals(spool.read(10, 0), Arrays.asList("m1", "m2", "m3"));
+        spool.close();
+    }
+
+    @Test
+    public void testAppendFailsWhenFull() throws Exception {
+        HookMessageSpool spool = new HookMessageSpool(directory, "test", 10);
+
+        assertTrue(spool.append(Collections.singletonList("12345")));
+        assertFalse(spool.append(Collections.singletonList("12345")));
+        assertEquals(spool.read(10, 0), Collections.singletonList("12345"));
+        spool.close();
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.apache.atlas.kafka;
 
+import kafka.common.OffsetAndMetadata;
+import kafka.common.TopicAndPartition;
 import kafka.consumer.ConsumerIterator;
 import kafka.consumer.KafkaStream;
 import kafka.javaapi.consumer.ConsumerConnector;
@@ -34,6 +36,7 @@ import org.apache.atlas.typesystem.IStruct;
 import org.apache.atlas.typesystem.Referenceable;
 import org.apache.atlas.typesystem.Struct;
 import org.codehaus.jettison.json.JSONException;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.annotations.BeforeMethod;
@@ -42,8 +45,12 @@ import org.testng.annotations.Test;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -190,6 +197,45 @@ public class KafkaConsumerTest {
         verify(consumerConnector, never()).commitOffsets();
     }
 
+    @Test
+    public void testProcessedOffsetsAreCommittedWithInterval() throws Exception {
+        KafkaStream<String, String> stream = mock(KafkaStream.class);
+        ConsumerIterator<String, String> iterator = mock(ConsumerIterator.class);
+        MessageAndMetadata<String, String> messageAndMetadata = mock(MessageAndMetadata.class);
+
+        String json = AbstractNotification.GSON.toJson(new VersionedMessage<>(new MessageVersion("1.0.0"),
+                new HookNotification.EntityUpdateRequest("user1", getEntity(TRAIT_NAME))));
+
+        when(stream.iterator()).thenReturn(iterator);
+        when(iterator.next()).thenReturn(messageAndMetadata);
+        when(messageAndMetadata.message()).thenReturn(json);
+        when(messageAndMetadata.topic()).thenReturn("ATLAS_HOOK");
+        when(messageAndMetadata.partition()).thenReturn(0);
+        when(messageAndMetadata.offset()).thenReturn(41L);
+
+        KafkaConsumer<HookNotification.HookNotificationMessage> consumer =
+                new KafkaConsumer<>(
+                        NotificationInterface.NotificationType.HOOK.getDeserializer(), stream, 99,
+                        consumerConnector, false, 1000);
+
+        consumer.next();
+
+        // nothing has been processed yet
+        consumer.commitProcessedOffsets();
+        verify(consumerConnector, never()).commitOffsets(anyMap(), anyBoolean());
+
+        consumer.commit();
+        verify(consumerConnector, never()).commitOffsets();
+
+        consumer.commitProcessedOffsets();
+        consumer.commitProcessedOffsets();
+
+        ArgumentCaptor<Map> offsets = ArgumentCaptor.forClass(Map.class);
+        verify(consumerConnector).commitOffsets(offsets.capture(), eq(true));
+        OffsetAndMetadata offset = (OffsetAndMetadata) offsets.getValue().get(new TopicAndPartition("ATLAS_HOOK", 0));
+        assertEquals(offset.offset(), 42L);
+    }
+
     private Referenceable getEntity(String traitName) {
         Referenceable entity = EntityNotificationImplTest.getEntity("id");
         List<IStruct> traitInfo = new LinkedList<>();
@@ -22,7 +22,18 @@ import kafka.javaapi.consumer.ConsumerConnector;
 import kafka.serializer.StringDecoder;
 import org.apache.atlas.notification.MessageDeserializer;
 import org.apache.atlas.notification.NotificationConsumer;
+import org.apache.atlas.notification.NotificationException;
 import org.apache.atlas.notification.NotificationInterface;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
@@ -33,12 +44,15 @@ import java.util.Properties;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class KafkaNotificationTest {
 
@@ -77,6 +91,93 @@ public class KafkaNotificationTest {
         assertTrue(consumers.contains(consumer2));
     }
 
+    @Test
+    public void testAsyncSendFailureIsReportedOnFlush() throws Exception {
+        Producer producer = mock(Producer.class);
+        List<Callback> callbacks = captureCallbacks(producer);
+        KafkaNotification kafkaNotification = new ProducerKafkaNotification(asyncConfiguration(2), producer);
+
+        kafkaNotification.sendInternal(NotificationInterface.NotificationType.HOOK, "message1", "message2");
+        assertEquals(callbacks.size(), 2);
+        callbacks.get(0).onCompletion(null, new KafkaException("send failed"));
+        callbacks.get(1).onCompletion(new RecordMetadata(
+                new TopicPartition(KafkaNotification.ATLAS_HOOK_TOPIC, 0), 0, 0), null);
+
+        try {
+            kafkaNotification.flush();
+            fail("Expected the failed send to be reported on flush");
+        } catch (NotificationException e) {
+            assertEquals(e.getCause().getMessage(), "send failed");
+        }
+
+        //the failure is reported only once
+        kafkaNotification.flush();
+        verify(producer, times(2)).flush();
+    }
+
+    @Test(timeOut = 10000)
+    public void testAsyncSendReleasesPermits() throws Exception {
+        Producer producer = mock(Producer.class);
+        List<Callback> callbacks = captureCallbacks(producer);
+        KafkaNotification kafkaNotification = new ProducerKafkaNotification(asyncConfiguration(1), producer);
+
+        //the permit is released when the send completes, with or without a failure
+        kafkaNotification.sendInternal(NotificationInterface.NotificationType.HOOK, "message1");
+        callbacks.get(0).onCompletion(null, new KafkaException("send failed"));
+        kafkaNotification.sendInternal(NotificationInterface.NotificationType.HOOK, "message2");
+        callbacks.get(1).onCompletion(new RecordMetadata(
+                new TopicPartition(KafkaNotification.ATLAS_HOOK_TOPIC, 0), 0, 0), null);
+
+        //and when the producer rejects the message
+        doThrow(new KafkaException("buffer exhausted")).when(producer)
+                .send(any(ProducerRecord.class), any(Callback.class));
+        try {
+            kafkaNotification.sendInternal(NotificationInterface.NotificationType.HOOK, "message3");
+            fail("Expected the rejected send to fail");
+        } catch (NotificationException e) {
+            assertEquals(e.getCause().getMessage(), "buffer exhausted");
+        }
+
+        callbacks = captureCallbacks(producer);
+        kafkaNotification.sendInternal(NotificationInterface.NotificationType.HOOK, "message4");
+        assertEquals(callbacks.size(), 1);
+    }
+
+    private Configuration asyncConfiguration(int maxInFlight) {
+        Configuration configuration = new PropertiesConfiguration();
+        configuration.setProperty(KafkaNotification.SEND_ASYNC_PROPERTY, true);
+        configuration.setProperty(KafkaNotification.SEND_MAX_IN_FLIGHT_PROPERTY, maxInFlight);
+        return configuration;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Callback> captureCallbacks(Producer producer) {
+        final List<Callback> callbacks = new ArrayList<>();
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                callbacks.add((Callback) invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(producer).send(any(ProducerRecord.class), any(Callback.class));
+        return callbacks;
+    }
+
+    class ProducerKafkaNotification extends KafkaNotification {
+
+        private final Producer producer;
+
+        ProducerKafkaNotification(Configuration configuration, Producer producer) throws Exception {
+            super(configuration);
+            this.producer = producer;
+        }
+
+        @Override
+        protected Producer createKafkaProducer(Properties producerProperties) {
+            return producer;
+        }
+    }
+
     class TestKafkaNotification extends KafkaNotification {
 
         private final ConsumerConnector consumerConnector;
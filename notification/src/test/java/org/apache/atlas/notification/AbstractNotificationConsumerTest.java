@@ -195,6 +195,37 @@ public class AbstractNotificationConsumerTest {
         assertTrue(consumer.hasNext());
     }
 
+    @Test
+    public void testNextWithIncompleteSplitMessage() throws Exception {
+        Logger logger = mock(Logger.class);
+
+        TestMessage testMessage1 = new TestMessage("sValue1", 99);
+        TestMessage testMessage2 = new TestMessage("sValue2", 98);
+
+        String encoded = EncodedMessage.encode(GSON.toJson(new VersionedMessage<>(new MessageVersion("1.0.0"),
+                testMessage1)), EncodedMessage.CompressionKind.NONE);
+        int half = encoded.length() / 2;
+
+        List<String> jsonList = new LinkedList<>();
+        jsonList.add(GSON.toJson(new EncodedMessage("msg1", EncodedMessage.CompressionKind.NONE, 0, 2,
+                encoded.substring(0, half))));
+        jsonList.add(GSON.toJson(new VersionedMessage<>(new MessageVersion("1.0.0"), testMessage2)));
+        jsonList.add(GSON.toJson(new EncodedMessage("msg1", EncodedMessage.CompressionKind.NONE, 1, 2,
+                encoded.substring(half))));
+
+        Type versionedMessageType = new TypeToken<VersionedMessage<TestMessage>>(){}.getType();
+
+        TestNotificationConsumer<TestMessage> consumer =
+            new TestNotificationConsumer<>(versionedMessageType, jsonList, logger);
+
+        // the first chunk is read, but the message is not complete
+        assertEquals(testMessage2, consumer.next());
+        assertTrue(consumer.hasIncompleteMessages());
+
+        assertEquals(testMessage1, consumer.next());
+        assertFalse(consumer.hasIncompleteMessages());
+    }
+
     private static class TestMessage {
         private String s;
         private int i;
@@ -19,14 +19,18 @@
 package org.apache.atlas.notification;
 
 import org.apache.atlas.AtlasException;
+import org.apache.atlas.notification.hook.HookMessageDeserializer;
 import org.apache.atlas.notification.hook.HookNotification;
+import org.apache.atlas.typesystem.Referenceable;
 import org.apache.commons.configuration.Configuration;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.*;
 
 /**
@@ -85,6 +89,48 @@ public class AbstractNotificationTest {
         assertEquals(messageJson3, notification.messages[2]);
     }
 
+    @Test
+    public void testSendSplitMessage() throws Exception {
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getBoolean(AbstractNotification.PROPERTY_MESSAGE_COMPRESS, false)).thenReturn(true);
+        when(configuration.getInt(AbstractNotification.PROPERTY_MESSAGE_COMPRESS_THRESHOLD,
+                AbstractNotification.DEFAULT_MESSAGE_COMPRESS_THRESHOLD)).thenReturn(100);
+        when(configuration.getInt(AbstractNotification.PROPERTY_MESSAGE_MAX_LENGTH,
+                AbstractNotification.DEFAULT_MESSAGE_MAX_LENGTH)).thenReturn(400);
+
+        TestNotification notification = new TestNotification(configuration);
+
+        List<Referenceable> entities = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Referenceable entity = new Referenceable("hive_column");
+            entity.set("qualifiedName", "default.table.column" + i + "@cluster");
+            entities.add(entity);
+        }
+        HookNotification.EntityCreateRequest message = new HookNotification.EntityCreateRequest("user1", entities);
+
+        notification.send(NotificationInterface.NotificationType.HOOK, message);
+
+        assertTrue(notification.messages.length > 1);
+        assertTrue(notification.messages[0].length() < AbstractNotification.getMessageJson(message).length());
+        for (String chunk : notification.messages) {
+            assertTrue(chunk.getBytes("UTF-8").length <= 400);
+        }
+
+        // chunks can arrive out of order
+        HookMessageDeserializer deserializer = new HookMessageDeserializer();
+        for (int i = notification.messages.length - 1; i > 0; i--) {
+            assertNull(deserializer.deserialize(notification.messages[i]));
+        }
+        HookNotification.HookNotificationMessage deserializedMessage =
+                deserializer.deserialize(notification.messages[0]);
+
+        assertEquals(deserializedMessage.getType(), HookNotification.HookNotificationType.ENTITY_CREATE);
+        List<Referenceable> deserializedEntities =
+                ((HookNotification.EntityCreateRequest) deserializedMessage).getEntities();
+        assertEquals(deserializedEntities.size(), entities.size());
+        assertEquals(deserializedEntities.get(99).get("qualifiedName"), "default.table.column99@cluster");
+    }
+
     public static class TestMessage extends HookNotification.HookNotificationMessage {
 
         public TestMessage(HookNotification.HookNotificationType type, String user) {
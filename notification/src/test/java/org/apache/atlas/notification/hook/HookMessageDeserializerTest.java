@@ -25,6 +25,7 @@ import org.apache.atlas.typesystem.Referenceable;
 import org.apache.atlas.typesystem.Struct;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -67,4 +68,44 @@ public class HookMessageDeserializerTest {
         assertEquals(deserializedEntity.getTraits(), entity.getTraits());
         assertEquals(deserializedEntity.getTrait(traitName), entity.getTrait(traitName));
     }
+
+    @Test
+    public void testDeserializePartialUpdate() throws Exception {
+        HookMessageDeserializer deserializer = new HookMessageDeserializer();
+
+        Referenceable db = new Referenceable("hive_db");
+        db.set("name", "default");
+        Referenceable table = new Referenceable("hive_table", "MyTrait");
+        table.set("db", db);
+        table.set("retention", 10);
+        table.set("columns", Arrays.asList("c1", "c2"));
+        table.set("sd", new Struct("hive_sd", Collections.<String, Object>singletonMap("location", "/tmp")));
+
+        HookNotification.EntityPartialUpdateRequest message = new HookNotification.EntityPartialUpdateRequest(
+                "user1", "hive_table", "qualifiedName", "default.t1@cl1", table);
+
+        String json = AbstractNotification.getMessageJson(message);
+
+        HookNotification.HookNotificationMessage deserializedMessage = deserializer.deserialize(json);
+
+        assertTrue(deserializedMessage instanceof HookNotification.EntityPartialUpdateRequest);
+        HookNotification.EntityPartialUpdateRequest request =
+                (HookNotification.EntityPartialUpdateRequest) deserializedMessage;
+        assertEquals(request.getUser(), "user1");
+        assertEquals(request.getTypeName(), "hive_table");
+        assertEquals(request.getAttribute(), "qualifiedName");
+        assertEquals(request.getAttributeValue(), "default.t1@cl1");
+
+        Referenceable entity = request.getEntity();
+        assertEquals(entity.getTypeName(), "hive_table");
+        assertEquals(entity.getId(), table.getId());
+        assertEquals(entity.getTraits(), table.getTraits());
+        assertEquals(((Number) entity.get("retention")).intValue(), 10);
+        assertEquals(entity.get("columns"), Arrays.asList("c1", "c2"));
+        assertEquals(((Struct) entity.get("sd")).get("location"), "/tmp");
+
+        Referenceable deserializedDb = (Referenceable) entity.get("db");
+        assertEquals(deserializedDb.getId(), db.getId());
+        assertEquals(deserializedDb.get("name"), "default");
+    }
 }
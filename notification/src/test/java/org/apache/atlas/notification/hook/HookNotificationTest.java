@@ -17,6 +17,8 @@
  */
 package org.apache.atlas.notification.hook;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import org.apache.atlas.notification.AbstractNotification;
 import org.apache.atlas.typesystem.Referenceable;
 import org.testng.annotations.Test;
@@ -53,6 +55,25 @@ public class HookNotificationTest {
         assertEquals(createRequest.getEntities().get(1).getTypeName(), "newtype");
     }
 
+    @Test
+    public void testMessageAdapterWrite() throws Exception {
+        Referenceable entity = new Referenceable("sometype");
+        entity.set("attr", "value");
+        HookNotification.HookNotificationMessage request =
+                new HookNotification.EntityPartialUpdateRequest("user", "sometype", "attr", "value", entity);
+
+        Gson gson = new GsonBuilder().registerTypeAdapterFactory(new HookNotification())
+                .registerTypeAdapter(Referenceable.class, new AbstractNotification.ReferenceableSerializer())
+                .create();
+        String notificationJson = gson.toJson(request, HookNotification.HookNotificationMessage.class);
+
+        assertEquals(notificationJson, AbstractNotification.GSON.toJson(request));
+        HookNotification.EntityPartialUpdateRequest actualNotification =
+                (HookNotification.EntityPartialUpdateRequest) HOOK_MESSAGE_DESERIALIZER.deserialize(notificationJson);
+        assertEquals(actualNotification.getAttributeValue(), "value");
+        assertEquals(actualNotification.getEntity().get("attr"), "value");
+    }
+
     @Test
     public void testBackwardCompatibility() throws Exception {
         //Code to generate the json, use it for hard-coded json used later in this test
@@ -22,7 +22,16 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Runs the annotated method in a graph transaction, see {@link GraphTransactionInterceptor}.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface GraphTransaction {
+    /**
+     * If true, the method only reads the graph. The transaction is rolled back instead of committed when the method
+     * returns, so no commit work is done and no locks are acquired. If the method is called within another
+     * transaction, the transaction is left to the caller.
+     */
+    boolean readOnly() default false;
 }
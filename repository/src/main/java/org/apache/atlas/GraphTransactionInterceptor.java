@@ -19,15 +19,53 @@ package org.apache.atlas;
 
 import com.google.inject.Inject;
 import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.diskstorage.TemporaryBackendException;
+import com.thinkaurelius.titan.diskstorage.locking.PermanentLockingException;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.atlas.repository.graph.GraphProvider;
+import org.apache.atlas.repository.graph.GraphTransactionCache;
+import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs methods annotated with {@link GraphTransaction} in a graph transaction, committed when the outermost method
+ * returns.
+ *
+ * If the outermost method fails on lock contention or a temporary backend failure, its transaction is rolled back
+ * and the method is retried after a random backoff, up to the configured number of retries.
+ */
 public class GraphTransactionInterceptor implements MethodInterceptor {
     private static final Logger LOG = LoggerFactory.getLogger(GraphTransactionInterceptor.class);
+
+    public static final String MAX_RETRIES_PROPERTY = "atlas.graph.transaction.retries";
+    public static final String BACKOFF_PROPERTY = "atlas.graph.transaction.retry.backoff.ms";
+    public static final String MAX_BACKOFF_PROPERTY = "atlas.graph.transaction.retry.max.backoff.ms";
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BACKOFF_MS = 100;
+    public static final long DEFAULT_MAX_BACKOFF_MS = 5000;
+
+    // number of intercepted methods in progress on the current thread
+    private static final ThreadLocal<Integer> DEPTH = new ThreadLocal<>();
+
+    // contention metrics
+    private static final AtomicLong TRANSIENT_FAILURES = new AtomicLong();
+    private static final AtomicLong RETRIES = new AtomicLong();
+    private static final AtomicLong RETRIES_EXHAUSTED = new AtomicLong();
+
+    private final Random random = new Random();
+
     private TitanGraph titanGraph;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long backoffMs = DEFAULT_BACKOFF_MS;
+    private long maxBackoffMs = DEFAULT_MAX_BACKOFF_MS;
 
     @Inject
     GraphProvider<TitanGraph> graphProvider;
@@ -35,18 +73,139 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
     @Override
     public Object invoke(MethodInvocation invocation) throws Throwable {
         if (titanGraph == null) {
-            titanGraph = graphProvider.get();
+            initialize();
         }
 
+        GraphTransaction annotation = invocation.getMethod().getAnnotation(GraphTransaction.class);
+        boolean readOnly = annotation != null && annotation.readOnly();
+        boolean outermost = enter();
+        try {
+            if (!outermost) {
+                //Failures are retried by the outermost method, with the whole transaction
+                return invokeInTransaction(invocation, readOnly, false);
+            }
+
+            RequestContext.Savepoint savepoint = RequestContext.get().createSavepoint();
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    return invokeInTransaction(invocation, readOnly, true);
+                } catch (Throwable t) {
+                    //The changes recorded in the request context were rolled back with the transaction
+                    RequestContext.get().rollbackTo(savepoint);
+                    if (!isTransient(t)) {
+                        throw t;
+                    }
+
+                    TRANSIENT_FAILURES.incrementAndGet();
+                    if (attempt >= maxRetries) {
+                        RETRIES_EXHAUSTED.incrementAndGet();
+                        throw t;
+                    }
+
+                    long backoff = getBackoff(attempt);
+                    LOG.warn("Transient failure in {}, retrying in {} ms (retry {} of {})",
+                            invocation.getMethod().getName(), backoff, attempt + 1, maxRetries);
+                    RETRIES.incrementAndGet();
+                    Thread.sleep(backoff);
+                }
+            }
+        } finally {
+            exit();
+        }
+    }
+
+    private Object invokeInTransaction(MethodInvocation invocation, boolean readOnly, boolean outermost)
+            throws Throwable {
+        GraphTransactionCache.begin();
         try {
             Object response = invocation.proceed();
-            titanGraph.commit();
-            LOG.debug("graph commit");
+            //A nested method joins the transaction of the outermost one, which commits or discards it
+            if (!outermost) {
+                return response;
+            }
+
+            if (!readOnly) {
+                titanGraph.commit();
+                LOG.debug("graph commit");
+            } else {
+                //Nothing to commit, discard the transaction
+                titanGraph.rollback();
+                LOG.debug("graph read-only transaction closed");
+            }
             return response;
         } catch (Throwable t) {
             titanGraph.rollback();
-            LOG.error("graph rollback due to exception ", t);
+            if (outermost && isTransient(t)) {
+                LOG.debug("graph rollback due to transient exception ", t);
+            } else {
+                LOG.error("graph rollback due to exception ", t);
+            }
             throw t;
+        } finally {
+            GraphTransactionCache.end();
         }
     }
+
+    private synchronized void initialize() {
+        try {
+            Configuration configuration = ApplicationProperties.get();
+            maxRetries = Math.max(0, configuration.getInt(MAX_RETRIES_PROPERTY, DEFAULT_MAX_RETRIES));
+            backoffMs = Math.max(1, configuration.getLong(BACKOFF_PROPERTY, DEFAULT_BACKOFF_MS));
+            maxBackoffMs = Math.max(backoffMs, configuration.getLong(MAX_BACKOFF_PROPERTY, DEFAULT_MAX_BACKOFF_MS));
+        } catch (AtlasException e) {
+            LOG.warn("Failed to read graph transaction retry configuration, using defaults", e);
+        }
+        titanGraph = graphProvider.get();
+    }
+
+    /**
+     * @return a random backoff up to the base backoff doubled for each earlier retry, capped at the maximum backoff
+     */
+    private long getBackoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, backoffMs << Math.min(attempt, 20));
+        synchronized (random) {
+            return 1 + (long) (random.nextDouble() * ceiling);
+        }
+    }
+
+    /**
+     * @return true if the failure is caused by lock contention or a temporary backend failure
+     */
+    static boolean isTransient(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PermanentLockingException || cause instanceof TemporaryBackendException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean enter() {
+        Integer depth = DEPTH.get();
+        DEPTH.set(depth == null ? 1 : depth + 1);
+        return depth == null;
+    }
+
+    private static void exit() {
+        int depth = DEPTH.get();
+        if (depth <= 1) {
+            DEPTH.remove();
+        } else {
+            DEPTH.set(depth - 1);
+        }
+    }
+
+    /**
+     * @return the number of transient failures, of retries, and of methods that failed after all retries, since start
+     */
+    public static Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("transientFailures", TRANSIENT_FAILURES.get());
+        metrics.put("retries", RETRIES.get());
+        metrics.put("retriesExhausted", RETRIES_EXHAUSTED.get());
+        return metrics;
+    }
 }
@@ -28,6 +28,7 @@ import org.aopalliance.intercept.MethodInterceptor;
 import org.apache.atlas.discovery.DiscoveryService;
 import org.apache.atlas.discovery.DataSetLineageService;
 import org.apache.atlas.discovery.LineageService;
+import org.apache.atlas.discovery.graph.CompiledQueryCache;
 import org.apache.atlas.discovery.graph.GraphBackedDiscoveryService;
 import org.apache.atlas.listener.EntityChangeListener;
 import org.apache.atlas.listener.TypesChangeListener;
@@ -35,6 +36,7 @@ import org.apache.atlas.repository.MetadataRepository;
 import org.apache.atlas.repository.audit.EntityAuditListener;
 import org.apache.atlas.repository.audit.EntityAuditRepository;
 import org.apache.atlas.repository.audit.HBaseBasedAuditRepository;
+import org.apache.atlas.repository.graph.AsyncFullTextIndexer;
 import org.apache.atlas.repository.graph.DeleteHandler;
 import org.apache.atlas.repository.graph.GraphBackedMetadataRepository;
 import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
@@ -45,6 +47,7 @@ import org.apache.atlas.repository.typestore.GraphBackedTypeStore;
 import org.apache.atlas.repository.typestore.ITypeStore;
 import org.apache.atlas.service.Service;
 import org.apache.atlas.services.DefaultMetadataService;
+import org.apache.atlas.services.EntityDefinitionCache;
 import org.apache.atlas.services.IBootstrapTypesRegistrar;
 import org.apache.atlas.services.MetadataService;
 import org.apache.atlas.services.ReservedTypesRegistrar;
@@ -74,6 +77,8 @@ public class RepositoryMetadataModule extends com.google.inject.AbstractModule {
         Multibinder<TypesChangeListener> typesChangeListenerBinder =
                 Multibinder.newSetBinder(binder(), TypesChangeListener.class);
         typesChangeListenerBinder.addBinding().to(GraphBackedSearchIndexer.class);
+        typesChangeListenerBinder.addBinding().to(CompiledQueryCache.class);
+        typesChangeListenerBinder.addBinding().to(EntityDefinitionCache.class);
 
         // bind the MetadataService interface to an implementation
         bind(MetadataService.class).to(DefaultMetadataService.class).asEagerSingleton();
@@ -89,10 +94,15 @@ public class RepositoryMetadataModule extends com.google.inject.AbstractModule {
 
         bind(DeleteHandler.class).to(getDeleteHandlerImpl()).asEagerSingleton();
 
+        //Computes the full text of entities in the background, when enabled
+        Multibinder<Service> serviceBinder = Multibinder.newSetBinder(binder(), Service.class);
+        serviceBinder.addBinding().to(AsyncFullTextIndexer.class);
+
         //Add EntityAuditListener as EntityChangeListener
         Multibinder<EntityChangeListener> entityChangeListenerBinder =
                 Multibinder.newSetBinder(binder(), EntityChangeListener.class);
         entityChangeListenerBinder.addBinding().to(EntityAuditListener.class);
+        entityChangeListenerBinder.addBinding().to(EntityDefinitionCache.class);
 
         MethodInterceptor interceptor = new GraphTransactionInterceptor();
         requestInjection(interceptor);
@@ -95,7 +95,7 @@ public class DataSetLineageService implements LineageService {
      * @return Outputs Graph as JSON
      */
     @Override
-    @GraphTransaction
+    @GraphTransaction(readOnly = true)
     public String getOutputsGraph(String datasetName) throws AtlasException {
         LOG.info("Fetching lineage outputs graph for datasetName={}", datasetName);
         ParamChecker.notEmpty(datasetName, "dataset name");
@@ -110,7 +110,7 @@ public class DataSetLineageService implements LineageService {
      * @return Inputs Graph as JSON
      */
     @Override
-    @GraphTransaction
+    @GraphTransaction(readOnly = true)
     public String getInputsGraph(String tableName) throws AtlasException {
         LOG.info("Fetching lineage inputs graph for tableName={}", tableName);
         ParamChecker.notEmpty(tableName, "table name");
@@ -158,7 +158,7 @@ public class DataSetLineageService implements LineageService {
      * @return Schema as JSON
      */
     @Override
-    @GraphTransaction
+    @GraphTransaction(readOnly = true)
     public String getSchema(String datasetName) throws AtlasException {
         ParamChecker.notEmpty(datasetName, "table name");
         LOG.info("Fetching schema for tableName={}", datasetName);
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.discovery.graph;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.query.GremlinQuery;
+import org.apache.atlas.services.AbstractInvalidatingCache;
+import org.apache.atlas.typesystem.types.IDataType;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+
+/**
+ * LRU cache of the gremlin queries translated from DSL queries, by normalized DSL query text.
+ *
+ * A gremlin query holds the validated expression it was translated from, so a cached query skips parsing,
+ * validation and translation. Validation resolves the names in the query against the type system, so the cache is
+ * also cleared when types are added.
+ */
+@Singleton
+public class CompiledQueryCache extends AbstractInvalidatingCache<String, GremlinQuery> {
+    private static final Logger LOG = LoggerFactory.getLogger(CompiledQueryCache.class);
+
+    public static final String MAX_SIZE_PROPERTY = "atlas.search.dsl.cache.max.size";
+    public static final long DEFAULT_MAX_SIZE = 1000;
+
+    private final Cache<String, GremlinQuery> cache;
+
+    @Inject
+    public CompiledQueryCache() throws AtlasException {
+        this(ApplicationProperties.get());
+    }
+
+    CompiledQueryCache(Configuration configuration) {
+        super("compiled DSL query cache");
+        long maxSize = configuration.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+        if (maxSize <= 0) {
+            LOG.info("Compiled DSL query cache is disabled");
+            cache = null;
+            return;
+        }
+
+        cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    @Override
+    protected Cache<String, GremlinQuery> getCache() {
+        return cache;
+    }
+
+    /**
+     * @return the cached gremlin query for the DSL query, or null
+     */
+    public GremlinQuery get(String dslQuery) {
+        return cache == null ? null : cache.getIfPresent(normalize(dslQuery));
+    }
+
+    /**
+     * Caches the gremlin query translated from the DSL query, unless the types changed since it was compiled.
+     *
+     * @param invalidationsBefore the invalidation count before the DSL query was compiled
+     */
+    @Override
+    public void put(String dslQuery, GremlinQuery gremlinQuery, long invalidationsBefore) {
+        super.put(normalize(dslQuery), gremlinQuery, invalidationsBefore);
+    }
+
+    /**
+     * Trims the query and collapses the whitespace outside of quoted strings and identifiers, so that queries that
+     * differ only in formatting share an entry.
+     */
+    static String normalize(String dslQuery) {
+        StringBuilder normalized = new StringBuilder(dslQuery.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < dslQuery.length(); i++) {
+            char c = dslQuery.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            if (quote == 0 && (c == '"' || c == '\'' || c == '`')) {
+                quote = c;
+            } else if (quote != 0 && c == '\\' && i + 1 < dslQuery.length()) {
+                normalized.append(c);
+                c = dslQuery.charAt(++i);
+            } else if (c == quote) {
+                quote = 0;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    // ----- TypesChangeListener ---------------------------------------------
+
+    @Override
+    public void onAdd(Collection<? extends IDataType> dataTypes) {
+        invalidateAll();
+    }
+}
@@ -67,21 +67,23 @@ public class GraphBackedDiscoveryService implements DiscoveryService {
 
     private final TitanGraph titanGraph;
     private final DefaultGraphPersistenceStrategy graphPersistenceStrategy;
+    private final CompiledQueryCache compiledQueryCache;
 
     public final static String SCORE = "score";
 
     @Inject
-    GraphBackedDiscoveryService(GraphProvider<TitanGraph> graphProvider, MetadataRepository metadataRepository)
-    throws DiscoveryException {
+    GraphBackedDiscoveryService(GraphProvider<TitanGraph> graphProvider, MetadataRepository metadataRepository,
+                                CompiledQueryCache compiledQueryCache) throws DiscoveryException {
         this.titanGraph = graphProvider.get();
         this.graphPersistenceStrategy = new DefaultGraphPersistenceStrategy(metadataRepository);
+        this.compiledQueryCache = compiledQueryCache;
     }
 
     //Refer http://s3.thinkaurelius.com/docs/titan/0.5.4/index-backends.html for indexed query
     //http://www.elastic.co/guide/en/elasticsearch/reference/current/query-dsl-query-string-query
     // .html#query-string-syntax for query syntax
     @Override
-    @GraphTransaction
+    @GraphTransaction(readOnly = true)
     public String searchByFullText(String query) throws DiscoveryException {
         String graphQuery = String.format("v.%s:(%s)", Constants.ENTITY_TEXT_PROPERTY_KEY, query);
         LOG.debug("Full text query: {}", graphQuery);
@@ -118,7 +120,7 @@ public class GraphBackedDiscoveryService implements DiscoveryService {
      * @return JSON representing the type and results.
      */
     @Override
-    @GraphTransaction
+    @GraphTransaction(readOnly = true)
     public String searchByDSL(String dslQuery) throws DiscoveryException {
         LOG.info("Executing dsl query={}", dslQuery);
         GremlinQueryResult queryResult = evaluate(dslQuery);
@@ -128,10 +130,19 @@ public class GraphBackedDiscoveryService implements DiscoveryService {
     public GremlinQueryResult evaluate(String dslQuery) throws DiscoveryException {
         LOG.info("Executing dsl query={}", dslQuery);
         try {
+            GremlinQuery gremlinQuery = compiledQueryCache.get(dslQuery);
+            if (gremlinQuery != null) {
+                LOG.debug("Gremlin Query = {} (cached)", gremlinQuery.queryStr());
+                return evaluate(gremlinQuery);
+            }
+
+            long invalidationsBefore = compiledQueryCache.getInvalidations();
             Either<Parsers.NoSuccess, Expressions.Expression> either = QueryParser.apply(dslQuery);
             if (either.isRight()) {
                 Expressions.Expression expression = either.right().get();
-                return evaluate(expression);
+                gremlinQuery = translate(expression);
+                compiledQueryCache.put(dslQuery, gremlinQuery, invalidationsBefore);
+                return evaluate(gremlinQuery);
             } else {
                 throw new DiscoveryException("Invalid expression : " + dslQuery + ". " + either.left());
             }
@@ -141,11 +152,19 @@ public class GraphBackedDiscoveryService implements DiscoveryService {
     }
 
     public GremlinQueryResult evaluate(Expressions.Expression expression) {
+        return evaluate(translate(expression));
+    }
+
+    private GremlinQuery translate(Expressions.Expression expression) {
         Expressions.Expression validatedExpression = QueryProcessor.validate(expression);
         GremlinQuery gremlinQuery = new GremlinTranslator(validatedExpression, graphPersistenceStrategy).translate();
         LOG.debug("Query = {}", validatedExpression);
         LOG.debug("Expression Tree = {}", validatedExpression.treeString());
         LOG.debug("Gremlin Query = {}", gremlinQuery.queryStr());
+        return gremlinQuery;
+    }
+
+    private GremlinQueryResult evaluate(GremlinQuery gremlinQuery) {
         return new GremlinEvaluator(gremlinQuery, graphPersistenceStrategy, titanGraph).evaluate();
     }
 
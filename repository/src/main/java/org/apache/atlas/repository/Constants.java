@@ -66,6 +66,16 @@ public final class Constants {
     public static final String TIMESTAMP_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "timestamp";
     public static final String MODIFICATION_TIMESTAMP_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "modificationTimestamp";
 
+    /**
+     * Signature of the attribute values of an entity, used to skip updates that do not change the entity.
+     */
+    public static final String ENTITY_SIGNATURE_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "entitySignature";
+
+    /**
+     * Time at which the full-text of an entity was marked for computation by the asynchronous full-text indexer.
+     */
+    public static final String FULL_TEXT_PENDING_PROPERTY_KEY = INTERNAL_PROPERTY_KEY_PREFIX + "fullTextPending";
+
     public static AttributeInfo getAttributeInfoForSystemAttributes(String field) {
         switch (field) {
         case STATE_PROPERTY_KEY:
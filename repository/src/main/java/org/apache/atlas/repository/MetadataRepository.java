@@ -20,6 +20,7 @@ package org.apache.atlas.repository;
 
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasException;
+import org.apache.atlas.services.EntityListPage;
 import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.ITypedStruct;
 import org.apache.atlas.typesystem.exception.EntityExistsException;
@@ -29,6 +30,8 @@ import org.apache.atlas.typesystem.types.AttributeInfo;
 import org.apache.atlas.typesystem.types.IDataType;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An interface for persisting metadata into a blueprints enabled graph db.
@@ -95,6 +98,28 @@ public interface MetadataRepository {
      */
     ITypedReferenceableInstance getEntityDefinition(String guid) throws RepositoryException, EntityNotFoundException;
 
+    /**
+     * Fetch the definition of an entity given its GUID, with only the given attributes.
+     *
+     * @param guid globally unique identifier for the entity
+     * @param attributeNames names of the attributes to fetch, null for all attributes
+     * @param excludeComposites if true, composite entities are returned as ids instead of their definitions
+     * @return entity (typed instance) definition
+     * @throws RepositoryException
+     */
+    ITypedReferenceableInstance getEntityDefinition(String guid, Set<String> attributeNames, boolean excludeComposites)
+            throws RepositoryException, EntityNotFoundException;
+
+    /**
+     * Fetch the complete definitions of the entities with the given GUIDs, in one transaction.
+     *
+     * @param guids globally unique identifiers for the entities
+     * @return entity (typed instance) definitions by guid, in the order of the given guids. Entities that don't exist
+     * are left out
+     * @throws RepositoryException
+     */
+    Map<String, ITypedReferenceableInstance> getEntityDefinitions(List<String> guids) throws RepositoryException;
+
     /**
      * Gets the list of entities for a given entity type.
      *
@@ -104,6 +129,22 @@ public interface MetadataRepository {
      */
     List<String> getEntityList(String entityType) throws RepositoryException;
 
+    /**
+     * Gets a page of the list of entities for a given entity type.
+     *
+     * The list is read with a single scan of the type index, in a read-only transaction that stays open between the
+     * pages, so reading all pages costs time linear in the number of entities. Entities created or deleted while
+     * paging may or may not be listed. The scan is closed after the last page, or when the cursor expires.
+     *
+     * @param entityType name of a type which is unique
+     * @param cursor cursor returned with the previous page, or null to start a new scan
+     * @param limit maximum number of entities to return
+     * @return a page of at most limit entity guids for the given type
+     * @throws RepositoryException
+     * @throws IllegalArgumentException if the cursor is unknown, expired or of another type
+     */
+    EntityListPage getEntityList(String entityType, String cursor, int limit) throws RepositoryException;
+
     /**
      * Deletes entities for the specified guids.
      *
@@ -112,6 +153,16 @@ public interface MetadataRepository {
      * @throws RepositoryException
      */
     AtlasClient.EntityResult deleteEntities(List<String> guids) throws RepositoryException;
+
+    /**
+     * Deletes entities for the specified guids, together with their composite entities. If there are more entities
+     * to delete than fit in one chunk, they are deleted in chunks, each chunk in its own transaction.
+     *
+     * @param guids globally unique identifiers for the deletion candidate entities
+     * @return guids of deleted entities
+     * @throws RepositoryException
+     */
+    AtlasClient.EntityResult deleteEntitiesInChunks(List<String> guids) throws RepositoryException;
     
     
     // Trait management functions
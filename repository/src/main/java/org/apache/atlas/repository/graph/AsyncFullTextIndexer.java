@@ -0,0 +1,289 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.graph;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.tinkerpop.blueprints.Compare;
+import com.tinkerpop.blueprints.Vertex;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.service.Service;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the full text of entities in the background.
+ *
+ * When enabled, entity creates and updates only mark the entity vertex as pending, and the full text is computed
+ * here in batches, each batch in its own transaction. Full text search is then eventually consistent: an entity is
+ * indexed within about the configured maximum lag after its update is committed, unless the indexer falls behind.
+ * If an entity is updated while its full text is computed, the commit of the batch fails on the lock of the pending
+ * property and the entity is indexed again later.
+ *
+ * Requests can also defer the full text of the entities they write, see
+ * {@link org.apache.atlas.RequestContext#setFullTextDeferred(boolean)}. Deferral is honored only if the indexer runs,
+ * that is if asynchronous indexing is enabled for all updates or deferred indexing is enabled; otherwise the full
+ * text of such entities is computed inline.
+ */
+@Singleton
+public class AsyncFullTextIndexer implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncFullTextIndexer.class);
+
+    public static final String ENABLED_PROPERTY = "atlas.fulltext.async.enabled";
+    public static final String DEFERRED_ENABLED_PROPERTY = "atlas.fulltext.deferred.enabled";
+    public static final String THREADS_PROPERTY = "atlas.fulltext.async.threads";
+    public static final String BATCH_SIZE_PROPERTY = "atlas.fulltext.async.batch.size";
+    public static final String MAX_LAG_PROPERTY = "atlas.fulltext.async.max.lag.ms";
+
+    public static final int DEFAULT_THREADS = 1;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_MAX_LAG_MS = 1000;
+
+    private final TitanGraph titanGraph;
+    private final FullTextMapper fullTextMapper;
+
+    private int numThreads = DEFAULT_THREADS;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private long maxLagMs = DEFAULT_MAX_LAG_MS;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+
+    @Inject
+    public AsyncFullTextIndexer(GraphProvider<TitanGraph> graphProvider) {
+        this.titanGraph = graphProvider.get();
+        this.fullTextMapper = new FullTextMapper(new GraphToTypedInstanceMapper(titanGraph));
+    }
+
+    /**
+     * @return true if the full text of entities is computed asynchronously
+     */
+    public static boolean isEnabled() {
+        try {
+            return ApplicationProperties.get().getBoolean(ENABLED_PROPERTY, false);
+        } catch (AtlasException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the indexer runs, so that requests can defer the full text of the entities they write
+     */
+    public static boolean isIndexerEnabled() {
+        try {
+            Configuration configuration = ApplicationProperties.get();
+            return configuration.getBoolean(ENABLED_PROPERTY, false)
+                    || configuration.getBoolean(DEFERRED_ENABLED_PROPERTY, false);
+        } catch (AtlasException e) {
+            return false;
+        }
+    }
+
+    // ----- Service ---------------------------------------------------------
+
+    @Override
+    public void start() throws AtlasException {
+        if (!isIndexerEnabled()) {
+            LOG.info("Asynchronous full text indexing is not enabled.");
+            return;
+        }
+
+        Configuration configuration = ApplicationProperties.get();
+        numThreads = Math.max(1, configuration.getInt(THREADS_PROPERTY, DEFAULT_THREADS));
+        batchSize = Math.max(1, configuration.getInt(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE));
+        maxLagMs = Math.max(1, configuration.getLong(MAX_LAG_PROPERTY, DEFAULT_MAX_LAG_MS));
+
+        if (!HAConfiguration.isHAEnabled(configuration)) {
+            LOG.info("HA is disabled, starting asynchronous full text indexer inline.");
+            startIndexer();
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopIndexer();
+    }
+
+    // ----- ActiveStateChangeHandler ----------------------------------------
+
+    @Override
+    public void instanceIsActive() {
+        if (!isIndexerEnabled()) {
+            return;
+        }
+
+        LOG.info("Reacting to active state: starting asynchronous full text indexer");
+        startIndexer();
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        LOG.info("Reacting to passive state: stopping asynchronous full text indexer");
+        stopIndexer();
+    }
+
+    // ----- helper methods --------------------------------------------------
+
+    private synchronized void startIndexer() {
+        if (scheduler != null) {
+            return;
+        }
+
+        workers = Executors.newFixedThreadPool(numThreads,
+                new ThreadFactoryBuilder().setNameFormat("atlas-fulltext-indexer-%d").setDaemon(true).build());
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("atlas-fulltext-scheduler").setDaemon(true).build());
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                indexPendingEntities();
+            }
+        }, maxLagMs, maxLagMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopIndexer() {
+        if (scheduler == null) {
+            return;
+        }
+
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+        try {
+            if (!scheduler.awaitTermination(5000, TimeUnit.MILLISECONDS)) {
+                LOG.error("Timed out waiting for full text indexer to shut down");
+            }
+        } catch (InterruptedException e) {
+            LOG.error("Interrupted while shutting down full text indexer");
+        }
+        scheduler = null;
+        workers = null;
+    }
+
+    /**
+     * Index the pending entities, until there are no more than fit in one round of batches or a round makes no
+     * progress.
+     */
+    void indexPendingEntities() {
+        try {
+            List<String> guids;
+            int indexed;
+            do {
+                guids = getPendingEntities(batchSize * numThreads);
+
+                List<Future<Integer>> futures = new ArrayList<>();
+                for (int i = 0; i < guids.size(); i += batchSize) {
+                    final List<String> batch = guids.subList(i, Math.min(i + batchSize, guids.size()));
+                    futures.add(workers.submit(new Callable<Integer>() {
+                        @Override
+                        public Integer call() {
+                            return indexEntities(batch);
+                        }
+                    }));
+                }
+
+                indexed = 0;
+                for (Future<Integer> future : futures) {
+                    indexed += future.get();
+                }
+            } while (guids.size() == batchSize * numThreads && indexed > 0
+                    && !Thread.currentThread().isInterrupted());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.error("Failure in full text indexing", e.getCause());
+        } catch (Exception e) {
+            LOG.error("Failure in full text indexing", e);
+        }
+    }
+
+    private List<String> getPendingEntities(int limit) {
+        List<String> guids = new ArrayList<>();
+        try {
+            Iterable<Vertex> vertices = titanGraph.query()
+                    .has(Constants.FULL_TEXT_PENDING_PROPERTY_KEY, Compare.GREATER_THAN, 0L)
+                    .limit(limit).vertices();
+            for (Vertex vertex : vertices) {
+                String guid = vertex.getProperty(Constants.GUID_PROPERTY_KEY);
+                if (guid != null) {
+                    guids.add(guid);
+                }
+            }
+        } finally {
+            titanGraph.rollback();
+        }
+        return guids;
+    }
+
+    /**
+     * Compute the full text of the given entities in one transaction, or one by one if that fails.
+     *
+     * @return the number of entities indexed
+     */
+    int indexEntities(List<String> guids) {
+        boolean failed = false;
+        GraphTransactionCache.begin();
+        try {
+            for (String guid : guids) {
+                Vertex instanceVertex = GraphHelper.getInstance().getVertexForGUID(guid);
+                String fullText = fullTextMapper.mapRecursive(instanceVertex, true);
+                GraphHelper.setProperty(instanceVertex, Constants.ENTITY_TEXT_PROPERTY_KEY, fullText);
+                GraphHelper.setProperty(instanceVertex, Constants.FULL_TEXT_PENDING_PROPERTY_KEY, null);
+            }
+            titanGraph.commit();
+            LOG.debug("Indexed full text of {} entities", guids.size());
+        } catch (Exception e) {
+            titanGraph.rollback();
+            LOG.warn("Failed to index full text of {} entities, will be retried", guids.size(), e);
+            failed = true;
+        } finally {
+            GraphTransactionCache.end();
+        }
+
+        if (!failed) {
+            return guids.size();
+        }
+
+        int indexed = 0;
+        if (guids.size() > 1) {
+            //Index the entities one by one, so that an entity that fails doesn't hold back the others
+            for (String guid : guids) {
+                indexed += indexEntities(Collections.singletonList(guid));
+            }
+        }
+        return indexed;
+    }
+}
@@ -0,0 +1,370 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.graph;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.repository.RepositoryException;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+import org.apache.atlas.typesystem.exception.EntityNotFoundException;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.apache.atlas.typesystem.types.AttributeInfo;
+import org.apache.atlas.typesystem.types.ClassType;
+import org.apache.atlas.typesystem.types.DataTypes;
+import org.apache.atlas.typesystem.types.IDataType;
+import org.apache.atlas.typesystem.types.TypeSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deletes entities together with their composite entities in chunks, each chunk in its own transaction.
+ *
+ * The composite closure of the entities is collected first. The composite entities are then deleted bottom up, so
+ * that a failure leaves no composite entity without its owner, and the given entities are deleted last. Subtrees of
+ * composite entities are independent of each other, and are deleted in parallel when more than one thread is
+ * configured. References from the entities being deleted to each other are not updated, as they are deleted anyway.
+ */
+public class ChunkedEntityDeleter {
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkedEntityDeleter.class);
+
+    public static final String CHUNK_SIZE_PROPERTY = "atlas.DeleteHandler.chunk.size";
+    public static final String THREADS_PROPERTY = "atlas.DeleteHandler.chunk.threads";
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final int DEFAULT_THREADS = 1;
+
+    private static final TypeSystem typeSystem = TypeSystem.getInstance();
+    private static final GraphHelper graphHelper = GraphHelper.getInstance();
+
+    private final TitanGraph titanGraph;
+    private final DeleteHandler deleteHandler;
+    private final int chunkSize;
+    private final int numThreads;
+
+    public ChunkedEntityDeleter(TitanGraph titanGraph, DeleteHandler deleteHandler) {
+        this(titanGraph, deleteHandler, getConfiguredInt(CHUNK_SIZE_PROPERTY, DEFAULT_CHUNK_SIZE),
+                getConfiguredInt(THREADS_PROPERTY, DEFAULT_THREADS));
+    }
+
+    ChunkedEntityDeleter(TitanGraph titanGraph, DeleteHandler deleteHandler, int chunkSize, int numThreads) {
+        this.titanGraph = titanGraph;
+        this.deleteHandler = deleteHandler;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.numThreads = Math.max(1, numThreads);
+    }
+
+    private static int getConfiguredInt(String property, int defaultValue) {
+        try {
+            return ApplicationProperties.get().getInt(property, defaultValue);
+        } catch (AtlasException e) {
+            LOG.warn("Failed to read {}, using default {}", property, defaultValue, e);
+            return defaultValue;
+        }
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * The entities to delete, in the order in which they are deleted.
+     */
+    static class Plan {
+        // post-order lists of the composite entities, one per subtree owned by a root entity
+        final List<List<String>> subtrees = new ArrayList<>();
+        final List<String> roots = new ArrayList<>();
+        final Set<String> guids = new HashSet<>();
+
+        int size() {
+            return guids.size();
+        }
+    }
+
+    /**
+     * Collect the composite closure of the given entities. Entities that don't exist or are deleted are skipped.
+     */
+    Plan plan(List<String> guids) throws RepositoryException {
+        Plan plan = new Plan();
+        try {
+            for (String guid : guids) {
+                if (guid == null || plan.guids.contains(guid)) {
+                    continue;
+                }
+
+                Vertex vertex;
+                try {
+                    vertex = graphHelper.getVertexForGUID(guid);
+                } catch (EntityNotFoundException e) {
+                    continue;
+                }
+                if (GraphHelper.getState(vertex) != Id.EntityState.ACTIVE) {
+                    continue;
+                }
+
+                plan.roots.add(guid);
+                plan.guids.add(guid);
+                for (Vertex child : getCompositeChildren(vertex)) {
+                    List<String> subtree = collectSubtree(child, plan.guids);
+                    if (!subtree.isEmpty()) {
+                        plan.subtrees.add(subtree);
+                    }
+                }
+            }
+        } catch (AtlasException e) {
+            throw new RepositoryException(e);
+        } finally {
+            titanGraph.rollback();
+        }
+
+        return plan;
+    }
+
+    /**
+     * Delete the planned entities. The entities deleted and updated are recorded in the current request context. If
+     * the deletion fails, only the changes of the chunks committed before the failure are recorded.
+     */
+    void delete(final Plan plan) throws RepositoryException {
+        final RequestContext requestContext = RequestContext.get();
+        requestContext.recordEntitiesBeingDeleted(plan.guids);
+
+        final AtomicInteger deleted = new AtomicInteger();
+        List<List<String>> partitions = partition(plan.subtrees, numThreads);
+        LOG.info("Deleting {} entities in chunks of {} with {} threads", plan.size(), chunkSize, partitions.size());
+
+        if (partitions.size() <= 1) {
+            for (List<String> partition : partitions) {
+                deleteInChunks(partition, plan.size(), deleted);
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(partitions.size(),
+                    new ThreadFactoryBuilder().setNameFormat("atlas-delete-%d").build());
+            try {
+                final List<RequestContext> workerContexts =
+                        Collections.synchronizedList(new ArrayList<RequestContext>());
+                List<Future<Void>> futures = new ArrayList<>();
+                for (final List<String> partition : partitions) {
+                    futures.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            RequestContext workerContext = RequestContext.createContext();
+                            workerContext.setUser(requestContext.getUser());
+                            workerContext.recordEntitiesBeingDeleted(plan.guids);
+                            workerContexts.add(workerContext);
+                            try {
+                                deleteInChunks(partition, plan.size(), deleted);
+                                return null;
+                            } finally {
+                                RequestContext.clear();
+                            }
+                        }
+                    }));
+                }
+
+                RepositoryException failure = null;
+                for (Future<Void> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        failure = new RepositoryException("Failed to delete entities", e.getCause());
+                    }
+                }
+
+                //The chunks committed by failed workers are recorded as well
+                for (RequestContext workerContext : workerContexts) {
+                    requestContext.recordEntityUpdate(workerContext.getUpdatedEntityIds());
+                    for (ITypedReferenceableInstance entity : workerContext.getDeletedEntities()) {
+                        requestContext.recordEntityDelete(entity.getId()._getId(), entity.getTypeName());
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            } catch (InterruptedException | AtlasException e) {
+                throw new RepositoryException(e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        //The root entities are deleted last, on the calling thread
+        deleteInChunks(plan.roots, plan.size(), deleted);
+    }
+
+    private void deleteInChunks(List<String> guids, int total, AtomicInteger deleted) throws RepositoryException {
+        for (int start = 0; start < guids.size(); start += chunkSize) {
+            List<String> chunk = guids.subList(start, Math.min(start + chunkSize, guids.size()));
+
+            RequestContext.Savepoint savepoint = RequestContext.get().createSavepoint();
+            GraphTransactionCache.begin();
+            try {
+                for (String guid : chunk) {
+                    try {
+                        deleteHandler.deleteEntity(graphHelper.getVertexForGUID(guid));
+                    } catch (EntityNotFoundException e) {
+                        LOG.debug("Skipping deleting {} as it doesn't exist", guid);
+                    }
+                }
+                titanGraph.commit();
+            } catch (Exception e) {
+                titanGraph.rollback();
+                RequestContext.get().rollbackTo(savepoint);
+                throw new RepositoryException("Failed to delete entities after deleting " + deleted.get() + " of "
+                        + total, e);
+            } finally {
+                GraphTransactionCache.end();
+            }
+
+            LOG.info("Deleted {} of {} entities", deleted.addAndGet(chunk.size()), total);
+        }
+    }
+
+    /**
+     * Collect the active composite entities of the given entity and of the entity itself, children before parents.
+     */
+    private List<String> collectSubtree(Vertex root, Set<String> visited) throws AtlasException {
+        List<String> ret = new ArrayList<>();
+        Deque<Vertex> stack = new ArrayDeque<>();
+        Deque<Vertex> output = new ArrayDeque<>();
+
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Vertex vertex = stack.pop();
+            String guid = GraphHelper.getIdFromVertex(vertex);
+            if (guid == null || !visited.add(guid)) {
+                continue;
+            }
+
+            output.push(vertex);
+            for (Vertex child : getCompositeChildren(vertex)) {
+                stack.push(child);
+            }
+        }
+
+        //output holds the parents after their children, in reverse
+        while (!output.isEmpty()) {
+            ret.add(GraphHelper.getIdFromVertex(output.pop()));
+        }
+        return ret;
+    }
+
+    private List<Vertex> getCompositeChildren(Vertex vertex) throws AtlasException {
+        ClassType classType = typeSystem.getDataType(ClassType.class, GraphHelper.getTypeName(vertex));
+        List<Vertex> ret = new ArrayList<>();
+
+        for (AttributeInfo attributeInfo : classType.fieldMapping().fields.values()) {
+            if (!attributeInfo.isComposite) {
+                continue;
+            }
+
+            String edgeLabel = GraphHelper.getEdgeLabel(classType, attributeInfo);
+            List<String> edgeLabels = new ArrayList<>();
+            switch (attributeInfo.dataType().getTypeCategory()) {
+            case CLASS:
+                edgeLabels.add(edgeLabel);
+                break;
+
+            case ARRAY:
+                if (((DataTypes.ArrayType) attributeInfo.dataType()).getElemType().getTypeCategory()
+                        == DataTypes.TypeCategory.CLASS) {
+                    edgeLabels.add(edgeLabel);
+                }
+                break;
+
+            case MAP:
+                IDataType valueType = ((DataTypes.MapType) attributeInfo.dataType()).getValueType();
+                List<String> keys =
+                        vertex.getProperty(GraphHelper.getQualifiedFieldName(classType, attributeInfo.name));
+                if (valueType.getTypeCategory() == DataTypes.TypeCategory.CLASS && keys != null) {
+                    for (String key : keys) {
+                        edgeLabels.add(GraphHelper.getQualifiedNameForMapKey(edgeLabel, key));
+                    }
+                }
+                break;
+
+            default:
+                break;
+            }
+
+            for (String label : edgeLabels) {
+                Iterator<Edge> edges = GraphHelper.getOutGoingEdgesByLabel(vertex, label);
+                while (edges != null && edges.hasNext()) {
+                    Edge edge = edges.next();
+                    Vertex child = edge.getVertex(Direction.IN);
+                    if (GraphHelper.getState(edge) == Id.EntityState.ACTIVE
+                            && GraphHelper.getState(child) == Id.EntityState.ACTIVE) {
+                        ret.add(child);
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Split the subtrees into at most the given number of partitions of about the same size.
+     */
+    private static List<List<String>> partition(List<List<String>> subtrees, int numPartitions) {
+        List<List<String>> sorted = new ArrayList<>(subtrees);
+        Collections.sort(sorted, new Comparator<List<String>>() {
+            @Override
+            public int compare(List<String> o1, List<String> o2) {
+                return o2.size() - o1.size();
+            }
+        });
+
+        List<List<String>> ret = new ArrayList<>();
+        for (List<String> subtree : sorted) {
+            if (ret.size() < numPartitions) {
+                ret.add(new ArrayList<>(subtree));
+                continue;
+            }
+
+            List<String> smallest = ret.get(0);
+            for (List<String> partition : ret) {
+                if (partition.size() < smallest.size()) {
+                    smallest = partition;
+                }
+            }
+            smallest.addAll(subtree);
+        }
+        return ret;
+    }
+}
@@ -263,6 +263,9 @@ public abstract class DeleteHandler {
             return;
         }
 
+        // the references of the entity change, so a full update with its earlier values must not be skipped
+        GraphHelper.setProperty(outVertex, Constants.ENTITY_SIGNATURE_PROPERTY_KEY, null);
+
         IDataType type = typeSystem.getDataType(IDataType.class, typeName);
         AttributeInfo attributeInfo = getFieldMapping(type).fields.get(attributeName);
         String propertyName = GraphHelper.getQualifiedFieldName(type, attributeName);
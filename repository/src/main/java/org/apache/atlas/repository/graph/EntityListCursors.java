@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.graph;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.TitanTransaction;
+import com.tinkerpop.blueprints.Vertex;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.RepositoryException;
+import org.apache.atlas.services.EntityListPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pages through the entity lists of types.
+ *
+ * Each list is read with a single scan of the type index, in a read-only transaction of its own that stays open
+ * between the pages, so the pages don't overlap and reading all of them costs time linear in the number of entities.
+ * An open scan is identified by a random cursor, which is replaced by a new one with every page, so that a page that
+ * is requested twice fails instead of silently skipping entities. The scan is closed after its last page, or when
+ * its cursor is not used for the configured expiry time.
+ */
+public class EntityListCursors {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityListCursors.class);
+
+    public static final String EXPIRY_MS_PROPERTY = "atlas.entities.list.cursor.expiry.ms";
+    public static final String MAX_OPEN_PROPERTY = "atlas.entities.list.cursor.max.open";
+
+    public static final long DEFAULT_EXPIRY_MS = 60000;
+    public static final int DEFAULT_MAX_OPEN = 100;
+
+    private final TitanGraph titanGraph;
+    private final Cache<String, Scan> scans;
+
+    /**
+     * An open scan of the type index.
+     */
+    static class Scan {
+        final String entityType;
+        final TitanTransaction transaction;
+        final Iterator<Vertex> vertices;
+
+        Scan(String entityType, TitanTransaction transaction, Iterator<Vertex> vertices) {
+            this.entityType = entityType;
+            this.transaction = transaction;
+            this.vertices = vertices;
+        }
+
+        void close() {
+            try {
+                transaction.rollback();
+            } catch (Exception e) {
+                LOG.warn("Failed to close the entity list scan of type {}", entityType, e);
+            }
+        }
+    }
+
+    public EntityListCursors(TitanGraph titanGraph) {
+        this(titanGraph, getConfiguredExpiryMs(), getConfiguredMaxOpen());
+    }
+
+    EntityListCursors(TitanGraph titanGraph, long expiryMs, int maxOpen) {
+        this.titanGraph = titanGraph;
+        this.scans = CacheBuilder.newBuilder()
+                .expireAfterWrite(expiryMs, TimeUnit.MILLISECONDS)
+                .maximumSize(Math.max(1, maxOpen))
+                .removalListener(new RemovalListener<String, Scan>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<String, Scan> notification) {
+                        //Scans removed explicitly are being read, and are closed by the reader
+                        if (notification.wasEvicted()) {
+                            LOG.info("Closing the entity list scan of type {}: cursor {} expired",
+                                    notification.getValue().entityType, notification.getKey());
+                            notification.getValue().close();
+                        }
+                    }
+                })
+                .build();
+    }
+
+    private static long getConfiguredExpiryMs() {
+        try {
+            return ApplicationProperties.get().getLong(EXPIRY_MS_PROPERTY, DEFAULT_EXPIRY_MS);
+        } catch (AtlasException e) {
+            LOG.warn("Failed to read {}, using default {}", EXPIRY_MS_PROPERTY, DEFAULT_EXPIRY_MS, e);
+            return DEFAULT_EXPIRY_MS;
+        }
+    }
+
+    private static int getConfiguredMaxOpen() {
+        try {
+            return ApplicationProperties.get().getInt(MAX_OPEN_PROPERTY, DEFAULT_MAX_OPEN);
+        } catch (AtlasException e) {
+            LOG.warn("Failed to read {}, using default {}", MAX_OPEN_PROPERTY, DEFAULT_MAX_OPEN, e);
+            return DEFAULT_MAX_OPEN;
+        }
+    }
+
+    /**
+     * Reads the next page of the list of entities of the given type.
+     *
+     * @param cursor cursor returned with the previous page, or null to start a new scan
+     * @throws IllegalArgumentException if the cursor is unknown, expired or of another type
+     */
+    public EntityListPage getPage(String entityType, String cursor, int limit) throws RepositoryException {
+        //Expired scans are otherwise only closed when other cursors are added or read
+        scans.cleanUp();
+
+        Scan scan;
+        if (cursor == null) {
+            TitanTransaction transaction = titanGraph.buildTransaction().readOnly().start();
+            Iterator<Vertex> vertices;
+            try {
+                vertices = transaction.query().has(Constants.ENTITY_TYPE_PROPERTY_KEY, entityType).vertices().iterator();
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                throw new RepositoryException(e);
+            }
+            scan = new Scan(entityType, transaction, vertices);
+        } else {
+            //Removing the scan gives this request exclusive use of it, the transaction isn't thread safe
+            scan = scans.asMap().remove(cursor);
+            if (scan == null) {
+                throw new IllegalArgumentException("Unknown or expired cursor " + cursor);
+            }
+            if (!scan.entityType.equals(entityType)) {
+                scan.close();
+                throw new IllegalArgumentException("Cursor " + cursor + " is not for type " + entityType);
+            }
+        }
+
+        List<String> guids = new ArrayList<>();
+        try {
+            while (guids.size() < limit && scan.vertices.hasNext()) {
+                guids.add(scan.vertices.next().<String>getProperty(Constants.GUID_PROPERTY_KEY));
+            }
+
+            if (!scan.vertices.hasNext()) {
+                scan.close();
+                return new EntityListPage(guids, null);
+            }
+        } catch (RuntimeException e) {
+            scan.close();
+            throw new RepositoryException(e);
+        }
+
+        String nextCursor = UUID.randomUUID().toString();
+        scans.put(nextCursor, scan);
+        return new EntityListPage(guids, nextCursor);
+    }
+
+    /**
+     * @return the number of open scans
+     */
+    long getOpenScans() {
+        scans.cleanUp();
+        return scans.size();
+    }
+}
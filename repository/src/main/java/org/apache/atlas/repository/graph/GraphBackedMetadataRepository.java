@@ -32,6 +32,7 @@ import org.apache.atlas.RequestContext;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.MetadataRepository;
 import org.apache.atlas.repository.RepositoryException;
+import org.apache.atlas.services.EntityListPage;
 import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.ITypedStruct;
 import org.apache.atlas.typesystem.exception.EntityExistsException;
@@ -48,7 +49,10 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An implementation backed by a Graph database provided
@@ -69,11 +73,17 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
 
     private GraphToTypedInstanceMapper graphToInstanceMapper;
 
+    private ChunkedEntityDeleter chunkedEntityDeleter;
+
+    private EntityListCursors entityListCursors;
+
     @Inject
     public GraphBackedMetadataRepository(GraphProvider<TitanGraph> graphProvider, DeleteHandler deleteHandler) {
         this.titanGraph = graphProvider.get();
         graphToInstanceMapper = new GraphToTypedInstanceMapper(titanGraph);
         this.deleteHandler = deleteHandler;
+        this.chunkedEntityDeleter = new ChunkedEntityDeleter(titanGraph, deleteHandler);
+        this.entityListCursors = new EntityListCursors(titanGraph);
     }
 
     public GraphToTypedInstanceMapper getGraphToInstanceMapper() {
@@ -138,21 +148,63 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
     }
 
     @Override
-    @GraphTransaction
+    @GraphTransaction(readOnly = true)
     public ITypedReferenceableInstance getEntityDefinition(String guid) throws RepositoryException, EntityNotFoundException {
+        return getEntityDefinition(guid, null, false);
+    }
+
+    @Override
+    @GraphTransaction(readOnly = true)
+    public ITypedReferenceableInstance getEntityDefinition(String guid, Set<String> attributeNames,
+            boolean excludeComposites) throws RepositoryException, EntityNotFoundException {
         LOG.info("Retrieving entity with guid={}", guid);
 
         Vertex instanceVertex = graphHelper.getVertexForGUID(guid);
 
         try {
-            return graphToInstanceMapper.mapGraphToTypedInstance(guid, instanceVertex);
+            if (attributeNames != null) {
+                String typeName = instanceVertex.getProperty(Constants.ENTITY_TYPE_PROPERTY_KEY);
+                ClassType classType = typeSystem.getDataType(ClassType.class, typeName);
+                for (String attributeName : attributeNames) {
+                    if (!classType.fieldMapping().fields.containsKey(attributeName)) {
+                        throw new RepositoryException("Invalid attribute " + attributeName + " for type " + typeName);
+                    }
+                }
+            }
+            return graphToInstanceMapper.mapGraphToTypedInstance(guid, instanceVertex, attributeNames,
+                    excludeComposites);
+        } catch (RepositoryException e) {
+            throw e;
         } catch (AtlasException e) {
             throw new RepositoryException(e);
         }
     }
 
     @Override
-    @GraphTransaction
+    @GraphTransaction(readOnly = true)
+    public Map<String, ITypedReferenceableInstance> getEntityDefinitions(List<String> guids)
+            throws RepositoryException {
+        LOG.info("Retrieving {} entities", guids.size());
+
+        Map<String, Vertex> vertices = graphHelper.getVerticesForGUIDs(guids);
+        graphHelper.prefetch(vertices.values());
+
+        Map<String, ITypedReferenceableInstance> result = new LinkedHashMap<>();
+        try {
+            for (String guid : guids) {
+                Vertex instanceVertex = vertices.get(guid);
+                if (instanceVertex != null && !result.containsKey(guid)) {
+                    result.put(guid, graphToInstanceMapper.mapGraphToTypedInstance(guid, instanceVertex));
+                }
+            }
+        } catch (AtlasException e) {
+            throw new RepositoryException(e);
+        }
+        return result;
+    }
+
+    @Override
+    @GraphTransaction(readOnly = true)
     public ITypedReferenceableInstance getEntityDefinition(String entityType, String attribute, Object value)
             throws AtlasException {
         LOG.info("Retrieving entity with type={} and {}={}", entityType, attribute, value);
@@ -165,7 +217,7 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
     }
 
     @Override
-    @GraphTransaction
+    @GraphTransaction(readOnly = true)
     public List<String> getEntityList(String entityType) throws RepositoryException {
         LOG.info("Retrieving entity list for type={}", entityType);
         GraphQuery query = titanGraph.query().has(Constants.ENTITY_TYPE_PROPERTY_KEY, entityType);
@@ -183,6 +235,13 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
         return entityList;
     }
 
+    @Override
+    public EntityListPage getEntityList(String entityType, String cursor, int limit) throws RepositoryException {
+        LOG.info("Retrieving entity list for type={}, cursor={}, limit={}", entityType, cursor, limit);
+        //The scan has a transaction of its own, that stays open between the pages
+        return entityListCursors.getPage(entityType, cursor, limit);
+    }
+
     /**
      * Gets the list of trait names for a given entity represented by a guid.
      *
@@ -191,7 +250,7 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
      * @throws RepositoryException
      */
     @Override
-    @GraphTransaction
+    @GraphTransaction(readOnly = true)
     public List<String> getTraitNames(String guid) throws AtlasException {
         LOG.info("Retrieving trait names for entity={}", guid);
         Vertex instanceVertex = graphHelper.getVertexForGUID(guid);
@@ -273,7 +332,7 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
     
     private void updateTraits(Vertex instanceVertex, List<String> traitNames) {
         // remove the key
-        instanceVertex.removeProperty(Constants.TRAIT_NAMES_PROPERTY_KEY);
+        GraphHelper.removeProperty(instanceVertex, Constants.TRAIT_NAMES_PROPERTY_KEY);
 
         // add it back again
         for (String traitName : traitNames) {
@@ -343,4 +402,22 @@ public class GraphBackedMetadataRepository implements MetadataRepository {
         return new AtlasClient.EntityResult(requestContext.getCreatedEntityIds(),
                 requestContext.getUpdatedEntityIds(), requestContext.getDeletedEntityIds());
     }
+
+    @Override
+    public AtlasClient.EntityResult deleteEntitiesInChunks(List<String> guids) throws RepositoryException {
+        if (guids == null || guids.size() == 0) {
+            throw new IllegalArgumentException("guids must be non-null and non-empty");
+        }
+
+        ChunkedEntityDeleter.Plan plan = chunkedEntityDeleter.plan(guids);
+        if (plan.size() <= chunkedEntityDeleter.getChunkSize()) {
+            //Small enough to delete in a single transaction
+            return deleteEntities(guids);
+        }
+
+        chunkedEntityDeleter.delete(plan);
+        RequestContext requestContext = RequestContext.get();
+        return new AtlasClient.EntityResult(requestContext.getCreatedEntityIds(),
+                requestContext.getUpdatedEntityIds(), requestContext.getDeletedEntityIds());
+    }
 }
@@ -19,11 +19,14 @@
 package org.apache.atlas.repository.graph;
 
 import com.thinkaurelius.titan.core.Cardinality;
+import com.thinkaurelius.titan.core.EdgeLabel;
 import com.thinkaurelius.titan.core.PropertyKey;
 import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.core.schema.ConsistencyModifier;
 import com.thinkaurelius.titan.core.schema.Mapping;
 import com.thinkaurelius.titan.core.schema.TitanGraphIndex;
 import com.thinkaurelius.titan.core.schema.TitanManagement;
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
 import org.apache.atlas.ApplicationProperties;
@@ -90,6 +93,14 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
         try {
             if (management.containsPropertyKey(Constants.VERTEX_TYPE_PROPERTY_KEY)) {
                 LOG.info("Global indexes already exist for graph");
+
+                // graphs created before asynchronous full text indexing don't have the pending key yet
+                if (!management.containsPropertyKey(Constants.FULL_TEXT_PENDING_PROPERTY_KEY)) {
+                    createFullTextPendingIndex(management);
+                    commit(management);
+                } else {
+                    rollback(management);
+                }
                 return;
             }
 
@@ -102,6 +113,10 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
             createIndexes(management, Constants.GUID_PROPERTY_KEY, String.class, true,
                     Cardinality.SINGLE, true);
 
+            // create the key for entity and edge state, used by the vertex-centric indexes on reference edges
+            management.makePropertyKey(Constants.STATE_PROPERTY_KEY).dataType(String.class)
+                    .cardinality(Cardinality.SINGLE).make();
+
             // create a composite index for entity state
             createIndexes(management, Constants.TIMESTAMP_PROPERTY_KEY, Long.class, false, Cardinality.SINGLE, true);
 
@@ -125,6 +140,9 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
             // Index for full text search
             createFullTextIndex(management);
 
+            // Index for the entities whose full text is pending
+            createFullTextPendingIndex(management);
+
             //Indexes for graph backed type system store
             createTypeStoreIndexes(management);
 
@@ -146,6 +164,17 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
         LOG.info("Created mixed index for {}", Constants.ENTITY_TEXT_PROPERTY_KEY);
     }
 
+    /**
+     * Creates a mixed index for the entities whose full text is pending, read by the asynchronous full text indexer.
+     * The key is locked so that the indexer can't overwrite a concurrent update.
+     */
+    private void createFullTextPendingIndex(TitanManagement management) {
+        PropertyKey fullTextPending = createIndexes(management, Constants.FULL_TEXT_PENDING_PROPERTY_KEY,
+                Long.class, false, Cardinality.SINGLE, false);
+        management.setConsistency(fullTextPending, ConsistencyModifier.LOCK);
+        LOG.info("Created mixed index for {}", Constants.FULL_TEXT_PENDING_PROPERTY_KEY);
+    }
+
     private void createTypeStoreIndexes(TitanManagement management) {
         //Create unique index on typeName
         createIndexes(management, Constants.TYPENAME_PROPERTY_KEY, String.class, true, Cardinality.SINGLE,
@@ -219,6 +248,9 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
 
     private void createIndexForFields(TitanManagement management, IDataType dataType, Map<String, AttributeInfo> fields) {
         for (AttributeInfo field : fields.values()) {
+            if (isReference(field.dataType())) {
+                createEdgeIndex(management, dataType, field);
+            }
             if (field.isIndexable) {
                 createIndexForAttribute(management, dataType.getName(), field);
             }
@@ -265,6 +297,45 @@ public class GraphBackedSearchIndexer implements SearchIndexer, ActiveStateChang
         }
     }
 
+    private boolean isReference(IDataType dataType) {
+        switch (dataType.getTypeCategory()) {
+        case CLASS:
+        case STRUCT:
+            return true;
+
+        case ARRAY:
+            return isReference(((DataTypes.ArrayType) dataType).getElemType());
+
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Creates the edge label for a reference attribute, with a vertex-centric index on the state of the outgoing
+     * edges, so that the active edge of a vertex can be found without scanning its other edges with the label.
+     * Existing edge labels are left as they are, since an index on them would only cover edges added later.
+     */
+    private void createEdgeIndex(TitanManagement management, IDataType dataType, AttributeInfo field) {
+        String edgeLabelName;
+        try {
+            edgeLabelName = GraphHelper.getEdgeLabel(dataType, field);
+        } catch (AtlasException e) {
+            throw new IllegalArgumentException("bad attribute " + field.name, e);
+        }
+
+        if (management.containsRelationType(edgeLabelName)) {
+            return;
+        }
+
+        PropertyKey stateKey = management.getPropertyKey(Constants.STATE_PROPERTY_KEY);
+        EdgeLabel edgeLabel = management.makeEdgeLabel(edgeLabelName).make();
+        if (stateKey != null && stateKey.getDataType() == String.class) {
+            management.buildEdgeIndex(edgeLabel, edgeLabelName + "_state", Direction.OUT, stateKey);
+            LOG.debug("Created vertex-centric index for edge label {}", edgeLabelName);
+        }
+    }
+
     private Class getPrimitiveClass(IDataType dataType) {
         if (dataType == DataTypes.STRING_TYPE) {
             return String.class;
@@ -18,9 +18,11 @@
 
 package org.apache.atlas.repository.graph;
 
+import com.thinkaurelius.titan.core.TitanEdge;
 import com.thinkaurelius.titan.core.TitanGraph;
 import com.thinkaurelius.titan.core.TitanProperty;
 import com.thinkaurelius.titan.core.TitanVertex;
+import com.tinkerpop.blueprints.Contains;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
@@ -46,8 +48,11 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -61,6 +66,9 @@ public final class GraphHelper {
 
     private static final TypeSystem typeSystem = TypeSystem.getInstance();
 
+    // maximum number of values in one multi-value unique attribute or guid query
+    private static final int UNIQUE_ATTRIBUTE_QUERY_BATCH_SIZE = 100;
+
     private static final GraphHelper INSTANCE = new GraphHelper(TitanGraphProvider.getGraphInstance());
 
     private TitanGraph titanGraph;
@@ -81,6 +89,7 @@ public final class GraphHelper {
 
         // add identity
         setProperty(vertexWithIdentity, Constants.GUID_PROPERTY_KEY, guid);
+        GraphTransactionCache.putVertex(guid, vertexWithIdentity);
 
         // add version information
         setProperty(vertexWithIdentity, Constants.VERSION_PROPERTY_KEY, typedInstance.getId().version);
@@ -120,19 +129,21 @@ public final class GraphHelper {
         setProperty(edge, Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name());
         setProperty(edge, Constants.TIMESTAMP_PROPERTY_KEY, RequestContext.get().getRequestTime());
         setProperty(edge, Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY, RequestContext.get().getRequestTime());
+        GraphTransactionCache.onEdgeChanged(edge);
 
         LOG.debug("Added {}", string(edge));
         return edge;
     }
 
     public Edge getOrCreateEdge(Vertex outVertex, Vertex inVertex, String edgeLabel) {
-        Iterable<Edge> edges = inVertex.getEdges(Direction.IN, edgeLabel);
+        // look up from the referring vertex, restricted to edges to inVertex, rather than scanning all the edges
+        // into a vertex that may be referred to by many others
+        Iterable<TitanEdge> edges = ((TitanVertex) outVertex).query().direction(Direction.OUT).labels(edgeLabel)
+                .adjacent((TitanVertex) inVertex).edges();
         for (Edge edge : edges) {
-            if (edge.getVertex(Direction.OUT).getId().toString().equals(outVertex.getId().toString())) {
-                Id.EntityState edgeState = getState(edge);
-                if (edgeState == null || edgeState == Id.EntityState.ACTIVE) {
-                    return edge;
-                }
+            Id.EntityState edgeState = getState(edge);
+            if (edgeState == null || edgeState == Id.EntityState.ACTIVE) {
+                return edge;
             }
         }
         return addEdge(outVertex, inVertex, edgeLabel);
@@ -196,6 +207,19 @@ public final class GraphHelper {
         return null;
     }
 
+    /**
+     * Returns the outgoing edges of the vertex with the given label, loaded in one query, by edge id.
+     */
+    public static Map<String, Edge> getOutGoingEdgesById(Vertex instanceVertex, String edgeLabel) {
+        Map<String, Edge> edges = new HashMap<>();
+        Iterator<Edge> iterator = getOutGoingEdgesByLabel(instanceVertex, edgeLabel);
+        while (iterator != null && iterator.hasNext()) {
+            Edge edge = iterator.next();
+            edges.put(edge.getId().toString(), edge);
+        }
+        return edges;
+    }
+
     /**
      * Returns the active edge for the given edge label.
      * If the vertex is deleted and there is no active edge, it returns the latest deleted edge
@@ -204,6 +228,26 @@ public final class GraphHelper {
      * @return
      */
     public static Edge getEdgeForLabel(Vertex vertex, String edgeLabel) {
+        Edge cachedEdge = vertex == null || edgeLabel == null ? null
+                : GraphTransactionCache.getActiveEdge(vertex, edgeLabel);
+        if (cachedEdge != null) {
+            LOG.debug("Found cached {}", string(cachedEdge));
+            return cachedEdge;
+        }
+
+        // the active edge is found through the vertex-centric index on state, where there is one
+        if (vertex != null && edgeLabel != null) {
+            Iterator<TitanEdge> activeEdges = ((TitanVertex) vertex).query().direction(Direction.OUT)
+                    .labels(edgeLabel).has(Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name()).limit(1)
+                    .edges().iterator();
+            if (activeEdges.hasNext()) {
+                Edge edge = activeEdges.next();
+                LOG.debug("Found {}", string(edge));
+                GraphTransactionCache.putActiveEdge(vertex, edgeLabel, edge);
+                return edge;
+            }
+        }
+
         Iterator<Edge> iterator = GraphHelper.getOutGoingEdgesByLabel(vertex, edgeLabel);
         Edge latestDeletedEdge = null;
         long latestDeletedEdgeTime = Long.MIN_VALUE;
@@ -213,6 +257,7 @@ public final class GraphHelper {
             Id.EntityState edgeState = getState(edge);
             if (edgeState == null || edgeState == Id.EntityState.ACTIVE) {
                 LOG.debug("Found {}", string(edge));
+                GraphTransactionCache.putActiveEdge(vertex, edgeLabel, edge);
                 return edge;
             } else {
                 Long modificationTime = edge.getProperty(Constants.MODIFICATION_TIMESTAMP_PROPERTY_KEY);
@@ -255,8 +300,19 @@ public final class GraphHelper {
             if (!value.equals(existValue)) {
                 element.setProperty(propertyName, value);
                 LOG.debug("Set property {} = \"{}\" to {}", propertyName, value, elementStr);
+            } else {
+                return;
             }
         }
+
+        if (element instanceof Edge && Constants.STATE_PROPERTY_KEY.equals(propertyName)) {
+            GraphTransactionCache.onEdgeChanged((Edge) element);
+        } else if (!Constants.ENTITY_TEXT_PROPERTY_KEY.equals(propertyName)
+                && !Constants.ENTITY_SIGNATURE_PROPERTY_KEY.equals(propertyName)
+                && !Constants.FULL_TEXT_PENDING_PROPERTY_KEY.equals(propertyName)) {
+            // the full text, signature and full text state are not part of the cached instances
+            GraphTransactionCache.onElementChanged();
+        }
     }
 
     private static <T extends Element> String string(T element) {
@@ -268,9 +324,19 @@ public final class GraphHelper {
         return element.toString();
     }
 
+    /**
+     * Remove all values of the given property from the given vertex, including those of multi-valued properties.
+     */
+    public static void removeProperty(Vertex vertex, String propertyName) {
+        LOG.debug("Removing property {} from vertex {}", propertyName, string(vertex));
+        vertex.removeProperty(propertyName);
+        GraphTransactionCache.onElementChanged();
+    }
+
     public static void addProperty(Vertex vertex, String propertyName, Object value) {
         LOG.debug("Adding property {} = \"{}\" to vertex {}", propertyName, value, string(vertex));
         ((TitanVertex)vertex).addProperty(propertyName, value);
+        GraphTransactionCache.onElementChanged();
     }
 
     /**
@@ -281,6 +347,7 @@ public final class GraphHelper {
     public void removeEdge(Edge edge) {
         String edgeString = string(edge);
         LOG.debug("Removing {}", edgeString);
+        GraphTransactionCache.onEdgeChanged(edge);
         titanGraph.removeEdge(edge);
         LOG.info("Removed {}", edgeString);
     }
@@ -293,12 +360,81 @@ public final class GraphHelper {
     public void removeVertex(Vertex vertex) {
         String vertexString = string(vertex);
         LOG.debug("Removing {}", vertexString);
+        GraphTransactionCache.onVertexRemoved(vertex);
         titanGraph.removeVertex(vertex);
         LOG.info("Removed {}", vertexString);
     }
 
     public Vertex getVertexForGUID(String guid) throws EntityNotFoundException {
-        return findVertex(Constants.GUID_PROPERTY_KEY, guid);
+        Vertex vertex = GraphTransactionCache.getVertex(guid);
+        if (vertex == null) {
+            vertex = findVertex(Constants.GUID_PROPERTY_KEY, guid);
+            GraphTransactionCache.putVertex(guid, vertex);
+        }
+        return vertex;
+    }
+
+    /**
+     * Finds the vertices of the given guids, with one query per batch of guids instead of one query per guid.
+     *
+     * @param guids the guids
+     * @return the vertices found, by guid
+     */
+    public Map<String, Vertex> getVerticesForGUIDs(Collection<String> guids) {
+        Map<String, Vertex> result = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String guid : new LinkedHashSet<>(guids)) {
+            Vertex vertex = GraphTransactionCache.getVertex(guid);
+            if (vertex != null) {
+                result.put(guid, vertex);
+            } else {
+                uncached.add(guid);
+            }
+        }
+
+        for (int i = 0; i < uncached.size(); i += UNIQUE_ATTRIBUTE_QUERY_BATCH_SIZE) {
+            List<String> batch = uncached.subList(i, Math.min(uncached.size(), i + UNIQUE_ATTRIBUTE_QUERY_BATCH_SIZE));
+            LOG.debug("Finding vertices with guid in {}", batch);
+            GraphQuery query = titanGraph.query().has(Constants.GUID_PROPERTY_KEY, Contains.IN, batch);
+            for (Vertex vertex : query.vertices()) {
+                String guid = vertex.getProperty(Constants.GUID_PROPERTY_KEY);
+                result.put(guid, vertex);
+                GraphTransactionCache.putVertex(guid, vertex);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the properties and outgoing edges of the given vertices, and the properties of the vertices they refer
+     * to, with multi-vertex queries. Titan keeps the loaded relations in the transaction, so mapping the vertices
+     * afterwards doesn't go to the storage backend for each vertex.
+     *
+     * @param vertices the vertices
+     */
+    public void prefetch(Collection<Vertex> vertices) {
+        if (vertices.isEmpty()) {
+            return;
+        }
+
+        List<TitanVertex> titanVertices = new ArrayList<>(vertices.size());
+        for (Vertex vertex : vertices) {
+            titanVertices.add((TitanVertex) vertex);
+        }
+        titanGraph.multiQuery(titanVertices).properties();
+        Map<TitanVertex, Iterable<TitanEdge>> edges =
+                titanGraph.multiQuery(titanVertices).direction(Direction.OUT).titanEdges();
+
+        Set<TitanVertex> referredVertices = new LinkedHashSet<>();
+        for (Iterable<TitanEdge> vertexEdges : edges.values()) {
+            for (TitanEdge edge : vertexEdges) {
+                referredVertices.add(edge.getVertex(Direction.IN));
+            }
+        }
+        if (!referredVertices.isEmpty()) {
+            titanGraph.multiQuery(referredVertices).properties();
+        }
+        LOG.debug("Prefetched {} vertices and {} referred vertices", titanVertices.size(), referredVertices.size());
     }
 
     public Vertex getVertexForProperty(String propertyKey, Object value) throws EntityNotFoundException {
@@ -392,6 +528,127 @@ public final class GraphHelper {
         return result;
     }
 
+    /**
+     * Finds the existing vertices for the unique attribute values of the given instances, with one query per unique
+     * attribute and batch of values instead of one query per instance and unique attribute. Only string values are
+     * looked up here, other values are looked up by
+     * {@link #getVertexForInstanceByUniqueAttribute(ClassType, IReferenceableInstance, Map)}.
+     *
+     * @param instances the instances
+     * @return the vertices found, by unique attribute property key and value
+     * @throws AtlasException
+     */
+    public Map<String, Map<Object, Vertex>> getVerticesByUniqueAttributes(
+            Collection<? extends IReferenceableInstance> instances) throws AtlasException {
+        Map<String, Set<Object>> valuesByKey = new HashMap<>();
+        for (IReferenceableInstance instance : instances) {
+            ClassType classType = typeSystem.getDataType(ClassType.class, instance.getTypeName());
+            for (AttributeInfo attributeInfo : classType.fieldMapping().fields.values()) {
+                Object value = attributeInfo.isUnique ? instance.get(attributeInfo.name) : null;
+                if (value instanceof String) {
+                    String propertyKey = getQualifiedFieldName(classType, attributeInfo.name);
+                    Set<Object> values = valuesByKey.get(propertyKey);
+                    if (values == null) {
+                        values = new LinkedHashSet<>();
+                        valuesByKey.put(propertyKey, values);
+                    }
+                    values.add(value);
+                }
+            }
+        }
+
+        Map<String, Map<Object, Vertex>> result = new HashMap<>();
+        for (Map.Entry<String, Set<Object>> entry : valuesByKey.entrySet()) {
+            String propertyKey = entry.getKey();
+            Map<Object, Vertex> vertices = new HashMap<>();
+            List<Object> values = new ArrayList<>(entry.getValue());
+
+            for (int i = 0; i < values.size(); i += UNIQUE_ATTRIBUTE_QUERY_BATCH_SIZE) {
+                List<Object> batch = values.subList(i, Math.min(values.size(), i + UNIQUE_ATTRIBUTE_QUERY_BATCH_SIZE));
+                LOG.debug("Finding vertices with {} in {}", propertyKey, batch);
+                GraphQuery query = titanGraph.query().has(propertyKey, Contains.IN, batch)
+                        .has(Constants.STATE_PROPERTY_KEY, Id.EntityState.ACTIVE.name());
+                for (Vertex vertex : query.vertices()) {
+                    Object value = vertex.getProperty(propertyKey);
+                    if (!vertices.containsKey(value)) {
+                        vertices.put(value, vertex);
+                    }
+                }
+            }
+            result.put(propertyKey, vertices);
+        }
+
+        return result;
+    }
+
+    /**
+     * Like {@link #getVertexForInstanceByUniqueAttribute(ClassType, IReferenceableInstance)}, but takes the vertices
+     * for string values from the given result of {@link #getVerticesByUniqueAttributes(Collection)}.
+     *
+     * @param classType
+     * @param instance
+     * @param uniqueVertices the vertices by unique attribute property key and value
+     * @return
+     * @throws AtlasException
+     */
+    public Vertex getVertexForInstanceByUniqueAttribute(ClassType classType, IReferenceableInstance instance,
+                                                        Map<String, Map<Object, Vertex>> uniqueVertices)
+        throws AtlasException {
+        Vertex result = null;
+        for (AttributeInfo attributeInfo : classType.fieldMapping().fields.values()) {
+            if (attributeInfo.isUnique) {
+                String propertyKey = getQualifiedFieldName(classType, attributeInfo.name);
+                Object value = instance.get(attributeInfo.name);
+                Map<Object, Vertex> vertices = uniqueVertices.get(propertyKey);
+                if (value instanceof String && vertices != null) {
+                    Vertex vertex = vertices.get(value);
+                    if (vertex != null) {
+                        LOG.debug("Found vertex by unique attribute : " + propertyKey + "=" + value);
+                        result = vertex;
+                    }
+                } else {
+                    try {
+                        result = getVertexForProperty(propertyKey, value);
+                        LOG.debug("Found vertex by unique attribute : " + propertyKey + "=" + value);
+                    } catch (EntityNotFoundException e) {
+                        //Its ok if there is no entity with the same unique value
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds a new vertex to the result of {@link #getVerticesByUniqueAttributes(Collection)}, so that later instances
+     * with the same unique attribute values resolve to it.
+     *
+     * @param classType
+     * @param instance the instance of the vertex
+     * @param vertex the new vertex
+     * @param uniqueVertices the vertices by unique attribute property key and value
+     * @throws AtlasException
+     */
+    public static void addVertexByUniqueAttribute(ClassType classType, IReferenceableInstance instance, Vertex vertex,
+                                                  Map<String, Map<Object, Vertex>> uniqueVertices)
+        throws AtlasException {
+        for (AttributeInfo attributeInfo : classType.fieldMapping().fields.values()) {
+            Object value = attributeInfo.isUnique ? instance.get(attributeInfo.name) : null;
+            if (value instanceof String) {
+                String propertyKey = getQualifiedFieldName(classType, attributeInfo.name);
+                Map<Object, Vertex> vertices = uniqueVertices.get(propertyKey);
+                if (vertices == null) {
+                    vertices = new HashMap<>();
+                    uniqueVertices.put(propertyKey, vertices);
+                }
+                if (!vertices.containsKey(value)) {
+                    vertices.put(value, vertex);
+                }
+            }
+        }
+    }
+
     public static void dumpToLog(final Graph graph) {
         LOG.debug("*******************Graph Dump****************************");
         LOG.debug("Vertices of {}", graph);
@@ -46,6 +46,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.apache.atlas.repository.graph.GraphHelper.string;
 
@@ -62,8 +63,35 @@ public final class GraphToTypedInstanceMapper {
         this.titanGraph = titanGraph;
     }
 
+    /**
+     * Maps the vertex of an entity to a typed instance with all its attributes. Within a graph transaction, the
+     * instance is shared through the {@link GraphTransactionCache} until the graph is changed, so it must not be
+     * modified.
+     */
     public ITypedReferenceableInstance mapGraphToTypedInstance(String guid, Vertex instanceVertex)
         throws AtlasException {
+        ITypedReferenceableInstance typedInstance = GraphTransactionCache.getInstance(guid);
+        if (typedInstance != null) {
+            LOG.debug("Cache hit: guid = {}", guid);
+            return typedInstance;
+        }
+
+        typedInstance = mapGraphToTypedInstance(guid, instanceVertex, null, false);
+        GraphTransactionCache.putInstance(guid, typedInstance);
+        return typedInstance;
+    }
+
+    /**
+     * Maps the vertex of an entity to a typed instance with only the given attributes. Such partial instances are
+     * not cached.
+     *
+     * @param guid              guid of the entity
+     * @param instanceVertex    vertex of the entity
+     * @param attributeNames    names of the attributes to map, null for all attributes
+     * @param excludeComposites if true, composite entities are mapped to their ids instead of their definitions
+     */
+    public ITypedReferenceableInstance mapGraphToTypedInstance(String guid, Vertex instanceVertex,
+        Set<String> attributeNames, boolean excludeComposites) throws AtlasException {
 
         LOG.debug("Mapping graph root vertex {} to typed instance for guid {}", instanceVertex, guid);
         String typeName = instanceVertex.getProperty(Constants.ENTITY_TYPE_PROPERTY_KEY);
@@ -77,7 +105,11 @@ public final class GraphToTypedInstanceMapper {
         ITypedReferenceableInstance typedInstance =
             classType.createInstance(id, traits.toArray(new String[traits.size()]));
 
-        mapVertexToInstance(instanceVertex, typedInstance, classType.fieldMapping().fields);
+        for (AttributeInfo attributeInfo : classType.fieldMapping().fields.values()) {
+            if (attributeNames == null || attributeNames.contains(attributeInfo.name)) {
+                mapVertexToAttribute(instanceVertex, typedInstance, attributeInfo, excludeComposites);
+            }
+        }
         mapVertexToInstanceTraits(instanceVertex, typedInstance, traits);
 
         return typedInstance;
@@ -98,12 +130,12 @@ public final class GraphToTypedInstanceMapper {
         LOG.debug("Mapping vertex {} to instance {} for fields", instanceVertex, typedInstance.getTypeName(),
             fields);
         for (AttributeInfo attributeInfo : fields.values()) {
-            mapVertexToAttribute(instanceVertex, typedInstance, attributeInfo);
+            mapVertexToAttribute(instanceVertex, typedInstance, attributeInfo, false);
         }
     }
 
     private void mapVertexToAttribute(Vertex instanceVertex, ITypedInstance typedInstance,
-        AttributeInfo attributeInfo) throws AtlasException {
+        AttributeInfo attributeInfo, boolean excludeComposites) throws AtlasException {
         LOG.debug("Mapping attributeInfo {}", attributeInfo.name);
         final IDataType dataType = attributeInfo.dataType();
         final String vertexPropertyName = GraphHelper.getQualifiedFieldName(typedInstance, attributeInfo);
@@ -125,11 +157,13 @@ public final class GraphToTypedInstanceMapper {
             break;
 
         case ARRAY:
-            mapVertexToArrayInstance(instanceVertex, typedInstance, attributeInfo, vertexPropertyName);
+            mapVertexToArrayInstance(instanceVertex, typedInstance, attributeInfo, vertexPropertyName,
+                excludeComposites);
             break;
 
         case MAP:
-            mapVertexToMapInstance(instanceVertex, typedInstance, attributeInfo, vertexPropertyName);
+            mapVertexToMapInstance(instanceVertex, typedInstance, attributeInfo, vertexPropertyName,
+                excludeComposites);
             break;
 
         case STRUCT:
@@ -144,7 +178,7 @@ public final class GraphToTypedInstanceMapper {
 
         case CLASS:
             Object idOrInstance = mapVertexToClassReference(instanceVertex, attributeInfo, relationshipLabel,
-                attributeInfo.dataType(), null);
+                attributeInfo.dataType(), null, excludeComposites);
             if (idOrInstance != null) {
                 typedInstance.set(attributeInfo.name, idOrInstance);
             }
@@ -156,7 +190,8 @@ public final class GraphToTypedInstanceMapper {
     }
 
     private Object mapVertexToClassReference(Vertex instanceVertex, AttributeInfo attributeInfo,
-        String relationshipLabel, IDataType dataType, String edgeId) throws AtlasException {
+        String relationshipLabel, IDataType dataType, String edgeId, boolean excludeComposites)
+        throws AtlasException {
         LOG.debug("Finding edge for {} -> label {} ", instanceVertex, relationshipLabel);
 
         Edge edge;
@@ -170,7 +205,7 @@ public final class GraphToTypedInstanceMapper {
             final Vertex referenceVertex = edge.getVertex(Direction.IN);
             final String guid = referenceVertex.getProperty(Constants.GUID_PROPERTY_KEY);
             LOG.debug("Found vertex {} for label {} with guid {}", referenceVertex, relationshipLabel, guid);
-            if (attributeInfo.isComposite) {
+            if (attributeInfo.isComposite && !excludeComposites) {
                 //Also, when you retrieve a type's instance, you get the complete object graph of the composites
                 LOG.debug("Found composite, mapping vertex to instance");
                 return mapGraphToTypedInstance(guid, referenceVertex);
@@ -189,7 +224,7 @@ public final class GraphToTypedInstanceMapper {
 
     @SuppressWarnings("unchecked")
     private void mapVertexToArrayInstance(Vertex instanceVertex, ITypedInstance typedInstance,
-        AttributeInfo attributeInfo, String propertyName) throws AtlasException {
+        AttributeInfo attributeInfo, String propertyName, boolean excludeComposites) throws AtlasException {
         LOG.debug("mapping vertex {} to array {}", instanceVertex, attributeInfo.name);
         List list = instanceVertex.getProperty(propertyName);
         if (list == null || list.size() == 0) {
@@ -202,7 +237,7 @@ public final class GraphToTypedInstanceMapper {
         ArrayList values = new ArrayList();
         for (int index = 0; index < list.size(); index++) {
             values.add(mapVertexToCollectionEntry(instanceVertex, attributeInfo, elementType, list.get(index),
-                edgeLabel));
+                edgeLabel, excludeComposites));
         }
 
         if (values.size() > 0) {
@@ -211,7 +246,7 @@ public final class GraphToTypedInstanceMapper {
     }
 
     private Object mapVertexToCollectionEntry(Vertex instanceVertex, AttributeInfo attributeInfo,
-        IDataType elementType, Object value, String edgeLabel) throws AtlasException {
+        IDataType elementType, Object value, String edgeLabel, boolean excludeComposites) throws AtlasException {
         switch (elementType.getTypeCategory()) {
         case PRIMITIVE:
         case ENUM:
@@ -227,7 +262,8 @@ public final class GraphToTypedInstanceMapper {
             return mapVertexToStructInstance(instanceVertex, (StructType) elementType, edgeLabel, (String) value);
 
         case CLASS:
-            return mapVertexToClassReference(instanceVertex, attributeInfo, edgeLabel, elementType, (String) value);
+            return mapVertexToClassReference(instanceVertex, attributeInfo, edgeLabel, elementType, (String) value,
+                excludeComposites);
 
         default:
             break;
@@ -238,7 +274,7 @@ public final class GraphToTypedInstanceMapper {
 
     @SuppressWarnings("unchecked")
     private void mapVertexToMapInstance(Vertex instanceVertex, ITypedInstance typedInstance,
-        AttributeInfo attributeInfo, final String propertyName) throws AtlasException {
+        AttributeInfo attributeInfo, final String propertyName, boolean excludeComposites) throws AtlasException {
         LOG.debug("mapping vertex {} to array {}", instanceVertex, attributeInfo.name);
         List<String> keys = instanceVertex.getProperty(propertyName);
         if (keys == null || keys.size() == 0) {
@@ -252,7 +288,8 @@ public final class GraphToTypedInstanceMapper {
             final String keyPropertyName = propertyName + "." + key;
             final String edgeLabel = GraphHelper.EDGE_LABEL_PREFIX + keyPropertyName;
             final Object keyValue = instanceVertex.getProperty(keyPropertyName);
-            Object mapValue = mapVertexToCollectionEntry(instanceVertex, attributeInfo, valueType, keyValue, edgeLabel);
+            Object mapValue = mapVertexToCollectionEntry(instanceVertex, attributeInfo, valueType, keyValue, edgeLabel,
+                excludeComposites);
             if (mapValue != null) {
                 values.put(key, mapValue);
             }
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.graph;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache of graph elements and instances that are looked up repeatedly within one graph transaction.
+ *
+ * The cache is only active while a {@link org.apache.atlas.GraphTransactionInterceptor} transaction is in progress
+ * on the current thread, and is cleared when the transaction is committed or rolled back. Outside such a
+ * transaction, lookups miss and nothing is cached.
+ *
+ * Cached vertices by guid and active edges by vertex and label are kept up to date by {@link GraphHelper} as
+ * vertices and edges are removed or change state. Cached instances are dropped on any change to the graph, and are
+ * shared, so they must not be modified.
+ */
+public final class GraphTransactionCache {
+
+    private static final ThreadLocal<GraphTransactionCache> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Vertex> vertexByGuid = new HashMap<>();
+    private final Map<String, Edge> activeEdgeByLabel = new HashMap<>();
+    private final Map<String, ITypedReferenceableInstance> instanceByGuid = new HashMap<>();
+    private int depth = 0;
+
+    private GraphTransactionCache() {
+    }
+
+    /**
+     * Start caching for a transaction on the current thread. Nested transactions share the cache.
+     */
+    public static void begin() {
+        GraphTransactionCache cache = CURRENT.get();
+        if (cache == null) {
+            cache = new GraphTransactionCache();
+            CURRENT.set(cache);
+        }
+        cache.depth++;
+    }
+
+    /**
+     * Clear the cache after a commit or rollback, and stop caching when the outermost transaction ends.
+     */
+    public static void end() {
+        GraphTransactionCache cache = CURRENT.get();
+        if (cache != null) {
+            cache.clear();
+            if (--cache.depth <= 0) {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    // ----- vertices by guid ------------------------------------------------
+
+    static Vertex getVertex(String guid) {
+        GraphTransactionCache cache = CURRENT.get();
+        return cache == null ? null : cache.vertexByGuid.get(guid);
+    }
+
+    static void putVertex(String guid, Vertex vertex) {
+        GraphTransactionCache cache = CURRENT.get();
+        if (cache != null && guid != null) {
+            cache.vertexByGuid.put(guid, vertex);
+        }
+    }
+
+    // ----- active edges by vertex and label --------------------------------
+
+    static Edge getActiveEdge(Vertex outVertex, String edgeLabel) {
+        GraphTransactionCache cache = CURRENT.get();
+        return cache == null ? null : cache.activeEdgeByLabel.get(edgeKey(outVertex, edgeLabel));
+    }
+
+    static void putActiveEdge(Vertex outVertex, String edgeLabel, Edge edge) {
+        GraphTransactionCache cache = CURRENT.get();
+        if (cache != null) {
+            cache.activeEdgeByLabel.put(edgeKey(outVertex, edgeLabel), edge);
+        }
+    }
+
+    // ----- instances by guid -----------------------------------------------
+
+    static ITypedReferenceableInstance getInstance(String guid) {
+        GraphTransactionCache cache = CURRENT.get();
+        return cache == null ? null : cache.instanceByGuid.get(guid);
+    }
+
+    static void putInstance(String guid, ITypedReferenceableInstance instance) {
+        GraphTransactionCache cache = CURRENT.get();
+        if (cache != null) {
+            cache.instanceByGuid.put(guid, instance);
+        }
+    }
+
+    // ----- invalidation ----------------------------------------------------
+
+    /**
+     * Called when a property of a vertex or edge is modified.
+     */
+    static void onElementChanged() {
+        GraphTransactionCache cache = CURRENT.get();
+        if (cache != null) {
+            cache.instanceByGuid.clear();
+        }
+    }
+
+    /**
+     * Called when an edge is added, removed or changes state.
+     */
+    static void onEdgeChanged(Edge edge) {
+        GraphTransactionCache cache = CURRENT.get();
+        if (cache != null) {
+            cache.activeEdgeByLabel.remove(edgeKey(edge.getVertex(Direction.OUT), edge.getLabel()));
+            cache.instanceByGuid.clear();
+        }
+    }
+
+    /**
+     * Called when a vertex is removed.
+     */
+    static void onVertexRemoved(Vertex vertex) {
+        GraphTransactionCache cache = CURRENT.get();
+        if (cache != null) {
+            cache.vertexByGuid.values().remove(vertex);
+            // the edges of the vertex are removed with it
+            cache.activeEdgeByLabel.clear();
+            cache.instanceByGuid.clear();
+        }
+    }
+
+    private void clear() {
+        vertexByGuid.clear();
+        activeEdgeByLabel.clear();
+        instanceByGuid.clear();
+    }
+
+    private static String edgeKey(Vertex outVertex, String edgeLabel) {
+        return outVertex.getId() + ":" + edgeLabel;
+    }
+}
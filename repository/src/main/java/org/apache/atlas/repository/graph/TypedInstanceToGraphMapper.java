@@ -17,6 +17,7 @@
  */
 package org.apache.atlas.repository.graph;
 
+import com.google.common.base.Charsets;
 import com.google.inject.Inject;
 import com.thinkaurelius.titan.core.SchemaViolationException;
 import com.tinkerpop.blueprints.Direction;
@@ -97,8 +98,10 @@ public final class TypedInstanceToGraphMapper {
             List<ITypedReferenceableInstance> entitiesToCreate = instancesPair.left;
             List<ITypedReferenceableInstance> entitiesToUpdate = instancesPair.right;
             FullTextMapper fulltextMapper = new FullTextMapper(graphToTypedInstanceMapper);
+            Map<Vertex, String> signatures = new HashMap<>();
             switch (operation) {
             case CREATE:
+                getChangedEntities(entitiesToCreate, signatures);
                 List<String> ids = addOrUpdateAttributesAndTraits(operation, entitiesToCreate);
                 addFullTextProperty(entitiesToCreate, fulltextMapper);
                 requestContext.recordEntityCreate(ids);
@@ -106,6 +109,14 @@ public final class TypedInstanceToGraphMapper {
 
             case UPDATE_FULL:
             case UPDATE_PARTIAL:
+                getChangedEntities(entitiesToCreate, signatures);
+                if (operation == Operation.UPDATE_FULL) {
+                    //Skip the entities whose attributes are the same as the ones already stored
+                    entitiesToUpdate = getChangedEntities(entitiesToUpdate, signatures);
+                } else {
+                    clearEntitySignatures(entitiesToUpdate);
+                }
+
                 ids = addOrUpdateAttributesAndTraits(Operation.CREATE, entitiesToCreate);
                 requestContext.recordEntityCreate(ids);
                 ids = addOrUpdateAttributesAndTraits(operation, entitiesToUpdate);
@@ -118,6 +129,10 @@ public final class TypedInstanceToGraphMapper {
             default:
                 throw new UnsupportedOperationException("Not handled - " + operation);
             }
+
+            for (Map.Entry<Vertex, String> entry : signatures.entrySet()) {
+                GraphHelper.setProperty(entry.getKey(), Constants.ENTITY_SIGNATURE_PROPERTY_KEY, entry.getValue());
+            }
         }
     }
 
@@ -239,6 +254,16 @@ public final class TypedInstanceToGraphMapper {
         List<ITypedReferenceableInstance> instancesToCreate = new ArrayList<>();
         List<ITypedReferenceableInstance> instancesToUpdate = new ArrayList<>();
 
+        //Look up the existing vertices for the unique attributes of all new instances at once
+        List<IReferenceableInstance> unassignedInstances = new ArrayList<>();
+        for (IReferenceableInstance instance : instances) {
+            if (!instance.getId().isAssigned() && !idToVertexMap.containsKey(instance.getId())) {
+                unassignedInstances.add(instance);
+            }
+        }
+        Map<String, Map<Object, Vertex>> uniqueVertices =
+                graphHelper.getVerticesByUniqueAttributes(unassignedInstances);
+
         for (IReferenceableInstance instance : instances) {
             LOG.debug("Discovering instance to create/update for {}", instance.toShortString());
             ITypedReferenceableInstance newInstance;
@@ -259,7 +284,8 @@ public final class TypedInstanceToGraphMapper {
                 } else {
                     //Check if there is already an instance with the same unique attribute value
                     ClassType classType = typeSystem.getDataType(ClassType.class, instance.getTypeName());
-                    instanceVertex = graphHelper.getVertexForInstanceByUniqueAttribute(classType, instance);
+                    instanceVertex = graphHelper.getVertexForInstanceByUniqueAttribute(classType, instance,
+                            uniqueVertices);
 
                     //no entity with the given unique attribute, create new
                     if (instanceVertex == null) {
@@ -270,6 +296,7 @@ public final class TypedInstanceToGraphMapper {
 
                         //Map only unique attributes for cases of circular references
                         mapInstanceToVertex(newInstance, instanceVertex, classType.fieldMapping().fields, true, Operation.CREATE);
+                        GraphHelper.addVertexByUniqueAttribute(classType, newInstance, instanceVertex, uniqueVertices);
 
                     } else {
                         LOG.debug("Re-using existing vertex {} for instance {}", string(instanceVertex), instance.toShortString());
@@ -284,14 +311,25 @@ public final class TypedInstanceToGraphMapper {
 
                 //Set the id in the new instance
                 idToVertexMap.put(id, instanceVertex);
+                if (!id.isAssigned()) {
+                    RequestContext.get().recordAssignedId(id._getId(), GraphHelper.getIdFromVertex(instanceVertex));
+                }
             }
         }
         return TypeUtils.Pair.of(instancesToCreate, instancesToUpdate);
     }
 
     private void addFullTextProperty(List<ITypedReferenceableInstance> instances, FullTextMapper fulltextMapper) throws AtlasException {
+        boolean async = AsyncFullTextIndexer.isEnabled()
+                || (RequestContext.get().isFullTextDeferred() && AsyncFullTextIndexer.isIndexerEnabled());
         for (ITypedReferenceableInstance typedInstance : instances) { // Traverse
             Vertex instanceVertex = getClassVertex(typedInstance);
+            if (async) {
+                //The full text is computed by the asynchronous indexer after the transaction is committed
+                GraphHelper.setProperty(instanceVertex, Constants.FULL_TEXT_PENDING_PROPERTY_KEY,
+                        RequestContext.get().getRequestTime());
+                continue;
+            }
             String fullText = fulltextMapper.mapRecursive(instanceVertex, true);
             GraphHelper.setProperty(instanceVertex, Constants.ENTITY_TEXT_PROPERTY_KEY, fullText);
         }
@@ -328,6 +366,13 @@ public final class TypedInstanceToGraphMapper {
         IDataType elementType = ((DataTypes.ArrayType) attributeInfo.dataType()).getElemType();
         List<Object> newElementsCreated = new ArrayList<>();
 
+        if (elementType.getTypeCategory() == DataTypes.TypeCategory.CLASS) {
+            newElementsCreated = mapClassArrayToVertex(instanceVertex, attributeInfo, newElements, currentElements,
+                    propertyName);
+            GraphHelper.setProperty(instanceVertex, propertyName, newElementsCreated);
+            return;
+        }
+
         if (!newAttributeEmpty) {
             if (newElements != null && !newElements.isEmpty()) {
                 int index = 0;
@@ -351,6 +396,80 @@ public final class TypedInstanceToGraphMapper {
         GraphHelper.setProperty(instanceVertex, propertyName, newElementsCreated);
     }
 
+    /**
+     * Maps an array of class references by comparing the guids of the referenced entities with the ones of the
+     * current edges, which are loaded in one query. Edges to entities that are still referenced are kept, also if
+     * their position changes, so only edges to newly referenced entities are added and only edges to entities that are
+     * no longer referenced are removed.
+     */
+    private List<Object> mapClassArrayToVertex(Vertex instanceVertex, AttributeInfo attributeInfo, List newElements,
+                                               List<String> currentElements, String propertyName)
+            throws AtlasException {
+        String edgeLabel = GraphHelper.EDGE_LABEL_PREFIX + propertyName;
+        boolean currentEmpty = (currentElements == null || currentElements.isEmpty());
+        Map<String, Edge> currentEdges = currentEmpty ? Collections.<String, Edge>emptyMap()
+                : GraphHelper.getOutGoingEdgesById(instanceVertex, edgeLabel);
+
+        //Active edges of the current elements, by the guid of the entity they refer to
+        Map<String, List<String>> currentEdgeIds = new HashMap<>();
+        if (!currentEmpty) {
+            for (String edgeId : currentElements) {
+                Edge edge = getCurrentEdge(instanceVertex, edgeLabel, currentEdges, edgeId);
+                if (edge != null && GraphHelper.getState(edge) == Id.EntityState.ACTIVE) {
+                    String guid = GraphHelper.getIdFromVertex(edge.getVertex(Direction.IN));
+                    if (!currentEdgeIds.containsKey(guid)) {
+                        currentEdgeIds.put(guid, new ArrayList<String>());
+                    }
+                    currentEdgeIds.get(guid).add(edgeId);
+                }
+            }
+        }
+
+        List<Object> newElementsCreated = new ArrayList<>();
+        if (newElements != null) {
+            for (Object newElement : newElements) {
+                String newEdgeId = null;
+                if (newElement != null) {
+                    ITypedReferenceableInstance reference = (ITypedReferenceableInstance) newElement;
+                    List<String> edgeIds = currentEdgeIds.get(getReferencedGuid(reference));
+                    if (edgeIds != null && !edgeIds.isEmpty()) {
+                        newEdgeId = edgeIds.remove(0);
+                    } else {
+                        newEdgeId = addOrUpdateClassVertex(instanceVertex, null, reference, attributeInfo, edgeLabel);
+                    }
+                }
+                newElementsCreated.add(newEdgeId);
+            }
+        }
+
+        if (!currentEmpty) {
+            //Remove the edges for (current edges - new edges)
+            Set<Object> newEdgeIds = new HashSet<>(newElementsCreated);
+            Set<String> removed = new HashSet<>();
+            for (String edgeId : currentElements) {
+                if (edgeId == null || newEdgeIds.contains(edgeId) || !removed.add(edgeId)) {
+                    continue;
+                }
+
+                Edge edge = getCurrentEdge(instanceVertex, edgeLabel, currentEdges, edgeId);
+                if (edge != null && !deleteHandler.deleteEdgeReference(edge, DataTypes.TypeCategory.CLASS,
+                        attributeInfo.isComposite, true)) {
+                    newElementsCreated.add(edgeId);
+                }
+            }
+        }
+        return newElementsCreated;
+    }
+
+    private Edge getCurrentEdge(Vertex instanceVertex, String edgeLabel, Map<String, Edge> currentEdges,
+                                String edgeId) {
+        if (edgeId == null) {
+            return null;
+        }
+        Edge edge = currentEdges.get(edgeId);
+        return edge != null ? edge : graphHelper.getEdgeByEdgeId(instanceVertex, edgeLabel, edgeId);
+    }
+
     //Removes unused edges from the old collection, compared to the new collection
     private List<String> removeUnusedEntries(Vertex instanceVertex, String edgeLabel,
                                              Collection<String> currentEntries,
@@ -572,6 +691,125 @@ public final class TypedInstanceToGraphMapper {
         }
     }
 
+    /******************************************** SIGNATURE **************************************************/
+
+    /**
+     * Returns the entities whose attribute values differ from the ones stored with their vertex, and collects the
+     * signatures to store for them once they are written. Entities that are not active are always returned.
+     */
+    private List<ITypedReferenceableInstance> getChangedEntities(List<ITypedReferenceableInstance> instances,
+                                                                 Map<Vertex, String> signatures) throws AtlasException {
+        List<ITypedReferenceableInstance> changed = new ArrayList<>();
+        for (ITypedReferenceableInstance instance : instances) {
+            Vertex instanceVertex = idToVertexMap.get(instance.getId());
+            String newSignature = getEntitySignature(instance);
+            String curSignature = instanceVertex.getProperty(Constants.ENTITY_SIGNATURE_PROPERTY_KEY);
+
+            if (newSignature.equals(curSignature) && GraphHelper.getState(instanceVertex) == Id.EntityState.ACTIVE) {
+                LOG.debug("Skipping update of {} since its signature is unchanged", instance.toShortString());
+                continue;
+            }
+            signatures.put(instanceVertex, newSignature);
+            changed.add(instance);
+        }
+        return changed;
+    }
+
+    private void clearEntitySignatures(List<ITypedReferenceableInstance> instances) {
+        for (ITypedReferenceableInstance instance : instances) {
+            GraphHelper.setProperty(idToVertexMap.get(instance.getId()), Constants.ENTITY_SIGNATURE_PROPERTY_KEY, null);
+        }
+    }
+
+    /**
+     * The signature of an entity covers its type and attribute values. Referenced entities are covered by their
+     * guid only, so the signature changes when a reference changes, but not when the referenced entity does.
+     * Traits are not covered, as they are not changed by updates.
+     */
+    private String getEntitySignature(ITypedReferenceableInstance instance) throws AtlasException {
+        MessageDigest digester = MD5Utils.getDigester();
+        updateSignature(digester, instance.getTypeName());
+        updateSignature(digester, instance, instance.fieldMapping().fields);
+        return MD5Utils.toString(digester.digest());
+    }
+
+    private void updateSignature(MessageDigest digester, ITypedInstance instance, Map<String, AttributeInfo> fields)
+            throws AtlasException {
+        for (AttributeInfo attributeInfo : fields.values()) {
+            updateSignature(digester, attributeInfo.name);
+            updateSignature(digester, attributeInfo.dataType(), instance.get(attributeInfo.name));
+        }
+    }
+
+    private void updateSignature(MessageDigest digester, IDataType dataType, Object value) throws AtlasException {
+        if (value == null) {
+            digester.update((byte) 0);
+            return;
+        }
+        digester.update((byte) 1);
+
+        switch (dataType.getTypeCategory()) {
+        case PRIMITIVE:
+            updateSignature(digester, value instanceof Date ? String.valueOf(((Date) value).getTime())
+                    : String.valueOf(value));
+            break;
+
+        case ENUM:
+            updateSignature(digester, String.valueOf(((EnumValue) value).ordinal));
+            break;
+
+        case ARRAY:
+            IDataType elementType = ((DataTypes.ArrayType) dataType).getElemType();
+            Collection<?> elements = (Collection<?>) value;
+            updateSignature(digester, String.valueOf(elements.size()));
+            for (Object element : elements) {
+                updateSignature(digester, elementType, element);
+            }
+            break;
+
+        case MAP:
+            IDataType keyType = ((DataTypes.MapType) dataType).getKeyType();
+            IDataType valueType = ((DataTypes.MapType) dataType).getValueType();
+            Map<?, ?> entries = (Map<?, ?>) value;
+            updateSignature(digester, String.valueOf(entries.size()));
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                updateSignature(digester, keyType, entry.getKey());
+                updateSignature(digester, valueType, entry.getValue());
+            }
+            break;
+
+        case STRUCT:
+            ITypedStruct struct = (ITypedStruct) value;
+            updateSignature(digester, struct, struct.fieldMapping().fields);
+            break;
+
+        case CLASS:
+            updateSignature(digester, getReferencedGuid((ITypedReferenceableInstance) value));
+            break;
+
+        default:
+            throw new IllegalArgumentException("Unknown type category: " + dataType.getTypeCategory());
+        }
+    }
+
+    private void updateSignature(MessageDigest digester, String value) {
+        byte[] bytes = value.getBytes(Charsets.UTF_8);
+        digester.update(String.valueOf(bytes.length).getBytes(Charsets.UTF_8));
+        digester.update((byte) ':');
+        digester.update(bytes);
+    }
+
+    private String getReferencedGuid(ITypedReferenceableInstance typedReference) {
+        Id id = typedReference instanceof Id ? (Id) typedReference : typedReference.getId();
+        if (id.isUnassigned()) {
+            Vertex classVertex = idToVertexMap.get(id);
+            if (classVertex != null) {
+                return classVertex.getProperty(Constants.GUID_PROPERTY_KEY);
+            }
+        }
+        return id._getId();
+    }
+
     /******************************************** CLASS **************************************************/
 
     private String addOrUpdateClassVertex(Vertex instanceVertex, Edge currentEdge,
@@ -208,7 +208,7 @@ public class GraphBackedTypeStore implements ITypeStore {
     }
 
     @Override
-    @GraphTransaction
+    @GraphTransaction(readOnly = true)
     public TypesDef restore() throws AtlasException {
         //Get all vertices for type system
         Iterator vertices =
@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.listener.TypesChangeListener;
+import org.apache.atlas.typesystem.types.IDataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class of the caches of values derived from the repository or the type system.
+ *
+ * Values are computed outside of the cache, so a value computed before an invalidation could be cached after it. To
+ * prevent this, the invalidations are counted, and a value is only cached if there was no invalidation since its
+ * computation started. The cache is cleared when types are changed, and when the server instance becomes active or
+ * passive, as types and entities may be changed by another instance while this one is passive.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public abstract class AbstractInvalidatingCache<K, V> implements TypesChangeListener, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractInvalidatingCache.class);
+
+    private final String name;
+
+    // incremented on every invalidation, so values computed before an invalidation are not cached after it
+    private final AtomicLong invalidations = new AtomicLong();
+
+    protected AbstractInvalidatingCache(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the cache, or null if the cache is disabled
+     */
+    protected abstract Cache<K, V> getCache();
+
+    /**
+     * @return the current invalidation count, to pass to {@link #put(Object, Object, long)}
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * Caches the value, unless the cache was invalidated since the value was computed.
+     *
+     * @param invalidationsBefore the invalidation count before the value was computed
+     */
+    protected void put(K key, V value, long invalidationsBefore) {
+        Cache<K, V> cache = getCache();
+        if (cache == null) {
+            return;
+        }
+
+        cache.put(key, value);
+        if (invalidations.get() != invalidationsBefore) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Counts an invalidation. Must be called before the invalidated values are removed from the cache.
+     */
+    protected void recordInvalidation() {
+        invalidations.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        Cache<K, V> cache = getCache();
+        if (cache == null) {
+            return;
+        }
+
+        recordInvalidation();
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return the number of hits, misses and evictions since start, and the number of cached values
+     */
+    public Map<String, Long> getMetrics() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        Cache<K, V> cache = getCache();
+        if (cache != null) {
+            CacheStats stats = cache.stats();
+            metrics.put("hits", stats.hitCount());
+            metrics.put("misses", stats.missCount());
+            metrics.put("evictions", stats.evictionCount());
+            metrics.put("size", cache.size());
+        }
+        return metrics;
+    }
+
+    // ----- TypesChangeListener ---------------------------------------------
+
+    @Override
+    public void onAdd(Collection<? extends IDataType> dataTypes) {
+        //New types don't change the values derived from existing types
+    }
+
+    @Override
+    public void onChange(Collection<? extends IDataType> dataTypes) {
+        invalidateAll();
+    }
+
+    // ----- ActiveStateChangeHandler ----------------------------------------
+
+    @Override
+    public void instanceIsActive() {
+        LOG.info("Reacting to active state: clearing {}", name);
+        invalidateAll();
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        LOG.info("Reacting to passive state: clearing {}", name);
+        invalidateAll();
+    }
+}
@@ -0,0 +1,326 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.services;
+
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+import org.apache.atlas.typesystem.Referenceable;
+import org.apache.atlas.typesystem.Struct;
+import org.apache.atlas.typesystem.json.InstanceSerialization;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports a stream of entities, one entity json per line, in chunks.
+ *
+ * Each chunk is created or updated like a full update, in its own transaction. Unassigned ids of entities that were
+ * imported in earlier chunks are replaced with their guids, so entities can reference entities of earlier chunks.
+ * If a chunk fails, its entities are imported one by one to find the ones that fail, which are reported and skipped.
+ * Entities that fail on their own are retried as long as other entities of the chunk are imported, as they may
+ * reference entities of later lines of the chunk.
+ *
+ * If the entity change listeners are skipped, the guids of the entities imported are recorded, and the listeners are
+ * notified of them in chunks at the end of the import, with the definitions of the entities at that time.
+ */
+public class BulkEntityImporter {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkEntityImporter.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final MetadataService metadataService;
+    private final int chunkSize;
+    private final boolean fullTextDeferred;
+    private final boolean entityChangeListenersSkipped;
+
+    // guids of the entities imported so far, by the unassigned id in the input
+    private final Map<String, String> assignedIds = new HashMap<>();
+    // guids of the entities imported so far, if the entity change listeners are skipped
+    private final Set<String> addedGuids = new LinkedHashSet<>();
+    private final Set<String> updatedGuids = new LinkedHashSet<>();
+    private final Progress progress = new Progress();
+
+    /**
+     * @param metadataService               the service to create and update entities with
+     * @param chunkSize                     the number of entities to commit in one transaction
+     * @param fullTextDeferred              if true, the full text is computed later by the asynchronous indexer
+     * @param entityChangeListenersSkipped  if true, entity change listeners (audit, notifications) are called at the
+     *                                      end of the import instead of for each chunk
+     */
+    public BulkEntityImporter(MetadataService metadataService, int chunkSize, boolean fullTextDeferred,
+                              boolean entityChangeListenersSkipped) {
+        this.metadataService = metadataService;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.fullTextDeferred = fullTextDeferred;
+        this.entityChangeListenersSkipped = entityChangeListenersSkipped;
+    }
+
+    /**
+     * Listener for the progress of an import.
+     */
+    public interface ProgressListener {
+        /**
+         * Called after each chunk.
+         *
+         * @param progress  the progress of the import so far
+         */
+        void onChunkImported(Progress progress) throws IOException;
+    }
+
+    /**
+     * Import the entities read from the given input.
+     *
+     * @param input     entity json, one per line
+     * @param listener  listener for the progress, may be null
+     * @return the progress at the end of the import
+     * @throws IOException if the input or the listener fail
+     */
+    public Progress importEntities(Reader input, ProgressListener listener) throws IOException {
+        BufferedReader reader = new BufferedReader(input);
+        String user = RequestContext.get().getUser();
+        Map<Integer, Referenceable> chunk = new LinkedHashMap<>();
+
+        boolean completed = false;
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+
+                try {
+                    chunk.put(lineNumber, InstanceSerialization.fromJsonReferenceable(line, true));
+                } catch (Exception e) {
+                    progress.addFailure(lineNumber, "Unable to deserialize json: " + e.getMessage());
+                    progress.processed++;
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, user, listener);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, user, listener);
+            }
+            completed = true;
+        } finally {
+            //The chunks committed before a failure are notified too
+            notifyEntityChangeListeners(completed);
+        }
+        return progress;
+    }
+
+    private void importChunk(Map<Integer, Referenceable> chunk, String user, ProgressListener listener)
+            throws IOException {
+        try {
+            importEntities(new ArrayList<>(chunk.values()), user);
+        } catch (Exception e) {
+            LOG.warn("Failed to import chunk of {} entities, importing them one by one", chunk.size(), e);
+            Map<Integer, Referenceable> remaining = new LinkedHashMap<>(chunk);
+            Map<Integer, Exception> failures = new LinkedHashMap<>();
+            boolean imported = true;
+            //An entity can reference an entity of a later line, so it's retried as long as other entities are imported
+            while (imported && !remaining.isEmpty()) {
+                imported = false;
+                failures.clear();
+                Iterator<Map.Entry<Integer, Referenceable>> iterator = remaining.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Integer, Referenceable> entry = iterator.next();
+                    try {
+                        importEntities(Collections.singletonList(entry.getValue()), user);
+                        iterator.remove();
+                        imported = true;
+                    } catch (Exception entityException) {
+                        failures.put(entry.getKey(), entityException);
+                    }
+                }
+            }
+
+            for (Map.Entry<Integer, Exception> failure : failures.entrySet()) {
+                LOG.warn("Failed to import entity at line {}", failure.getKey(), failure.getValue());
+                progress.addFailure(failure.getKey(), failure.getValue().getMessage());
+            }
+        }
+
+        progress.processed += chunk.size();
+        chunk.clear();
+        if (listener != null) {
+            listener.onChunkImported(progress);
+        }
+    }
+
+    private void importEntities(List<Referenceable> entities, String user) throws Exception {
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        ITypedReferenceableInstance[] typedInstances = new ITypedReferenceableInstance[entities.size()];
+        for (int i = 0; i < entities.size(); i++) {
+            Referenceable entity = entities.get(i);
+            resolveIds(entity);
+            typedInstances[i] = metadataService.getTypedReferenceableInstance(entity);
+        }
+
+        //Use a new context for each transaction, so that the entities of a chunk are reported separately
+        RequestContext requestContext = RequestContext.createContext();
+        requestContext.setUser(user);
+        requestContext.setFullTextDeferred(fullTextDeferred);
+        requestContext.setEntityChangeListenersSkipped(entityChangeListenersSkipped);
+
+        AtlasClient.EntityResult entityResult = metadataService.updateEntities(typedInstances);
+
+        assignedIds.putAll(requestContext.getAssignedIds());
+        if (entityChangeListenersSkipped) {
+            addedGuids.addAll(entityResult.getCreatedEntities());
+            for (String guid : entityResult.getUpdateEntities()) {
+                //An entity added and then updated by the import is only notified as added
+                if (!addedGuids.contains(guid)) {
+                    updatedGuids.add(guid);
+                }
+            }
+        }
+        progress.created += entityResult.getCreatedEntities().size();
+        progress.updated += entityResult.getUpdateEntities().size();
+    }
+
+    /**
+     * Notify the entity change listeners that were skipped of the entities imported, in chunks.
+     *
+     * @param completed false if the import failed, in which case a failure to notify is only logged, so that it
+     *                  doesn't hide the failure of the import
+     */
+    private void notifyEntityChangeListeners(boolean completed) throws IOException {
+        if (!entityChangeListenersSkipped || (addedGuids.isEmpty() && updatedGuids.isEmpty())) {
+            return;
+        }
+
+        LOG.info("Notifying entity change listeners of {} added and {} updated entities", addedGuids.size(),
+                updatedGuids.size());
+        try {
+            notifyEntityChangeListeners(new ArrayList<>(addedGuids), true);
+            notifyEntityChangeListeners(new ArrayList<>(updatedGuids), false);
+        } catch (Exception e) {
+            LOG.error("Failed to notify entity change listeners of the imported entities", e);
+            if (completed) {
+                throw new IOException("Failed to notify entity change listeners of the imported entities", e);
+            }
+        } finally {
+            addedGuids.clear();
+            updatedGuids.clear();
+        }
+    }
+
+    private void notifyEntityChangeListeners(List<String> guids, boolean added) throws Exception {
+        //The context of the last chunk has the user of the import
+        List<String> noGuids = Collections.emptyList();
+        for (int start = 0; start < guids.size(); start += chunkSize) {
+            List<String> chunk = guids.subList(start, Math.min(start + chunkSize, guids.size()));
+            metadataService.notifyEntityChangeListeners(added ? chunk : noGuids, added ? noGuids : chunk);
+        }
+    }
+
+    private Object resolveIds(Object value) {
+        if (value instanceof Id) {
+            Id id = (Id) value;
+            String guid = id.isUnassigned() ? assignedIds.get(id._getId()) : null;
+            return guid == null ? id : new Id(guid, 0, id.getTypeName());
+        } else if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            if (struct instanceof Referenceable) {
+                Referenceable entity = (Referenceable) struct;
+                Id id = entity.getId();
+                Object resolvedId = resolveIds(id);
+                if (resolvedId != id) {
+                    entity.replaceWithNewId((Id) resolvedId);
+                }
+            }
+            for (String attributeName : new ArrayList<>(struct.getValuesMap().keySet())) {
+                struct.set(attributeName, resolveIds(struct.get(attributeName)));
+            }
+            return struct;
+        } else if (value instanceof List) {
+            List<Object> values = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                values.add(resolveIds(element));
+            }
+            return values;
+        } else if (value instanceof Map) {
+            Map<Object, Object> values = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                values.put(entry.getKey(), resolveIds(entry.getValue()));
+            }
+            return values;
+        }
+        return value;
+    }
+
+    /**
+     * The progress of an import.
+     */
+    public static class Progress {
+        private int processed;
+        private int created;
+        private int updated;
+        private final Map<Integer, String> failures = new LinkedHashMap<>();
+
+        /**
+         * @return the number of entities read so far, including the ones that failed
+         */
+        public int getProcessed() {
+            return processed;
+        }
+
+        public int getCreated() {
+            return created;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        /**
+         * @return the error messages of the entities that failed, by their line number in the input
+         */
+        public Map<Integer, String> getFailures() {
+            return failures;
+        }
+
+        private void addFailure(int lineNumber, String message) {
+            failures.put(lineNumber, String.valueOf(message));
+        }
+    }
+}
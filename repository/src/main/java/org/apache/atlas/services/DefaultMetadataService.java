@@ -76,6 +76,7 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Simple wrapper over TypeSystem and MetadataRepository services with hooks
@@ -102,6 +103,9 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
     @Inject
     private EntityAuditRepository auditRepository;
 
+    @Inject
+    private EntityDefinitionCache entityDefinitionCache;
+
     @Inject
     DefaultMetadataService(final MetadataRepository repository, final ITypeStore typeStore,
                            final IBootstrapTypesRegistrar typesRegistrar,
@@ -368,10 +372,33 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
     public String getEntityDefinition(String guid) throws AtlasException {
         ParamChecker.notEmpty(guid, "entity id");
 
-        final ITypedReferenceableInstance instance = repository.getEntityDefinition(guid);
+        return entityDefinitionCache.get(guid, repository);
+    }
+
+    @Override
+    public String getEntityDefinition(String guid, List<String> attributeNames, boolean excludeComposites)
+            throws AtlasException {
+        ParamChecker.notEmpty(guid, "entity id");
+
+        if ((attributeNames == null || attributeNames.isEmpty()) && !excludeComposites) {
+            return getEntityDefinition(guid);
+        }
+
+        //Partial definitions are not cached
+        Set<String> attributes = attributeNames == null || attributeNames.isEmpty() ? null
+                : new LinkedHashSet<>(attributeNames);
+        final ITypedReferenceableInstance instance =
+                repository.getEntityDefinition(guid, attributes, excludeComposites);
         return InstanceSerialization.toJson(instance, true);
     }
 
+    @Override
+    public Map<String, String> getEntityDefinitions(List<String> guids) throws AtlasException {
+        ParamChecker.notEmptyElements(guids, "entity ids");
+
+        return entityDefinitionCache.getAll(guids, repository);
+    }
+
     private ITypedReferenceableInstance getEntityDefinitionReference(String entityType, String attribute, String value)
             throws AtlasException {
         validateTypeExists(entityType);
@@ -413,6 +440,16 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
         return repository.getEntityList(entityType);
     }
 
+    @Override
+    public EntityListPage getEntityList(String entityType, String cursor, int limit) throws AtlasException {
+        validateTypeExists(entityType);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Invalid limit " + limit);
+        }
+
+        return repository.getEntityList(entityType, cursor, limit);
+    }
+
     /**
      * Updates an entity, instance of the type based on the guid set.
      *
@@ -425,6 +462,11 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
         ParamChecker.notEmpty(entityInstanceDefinition, "Entity instance definition");
         ITypedReferenceableInstance[] typedInstances = deserializeClassInstances(entityInstanceDefinition);
 
+        return updateEntities(typedInstances);
+    }
+
+    @Override
+    public AtlasClient.EntityResult updateEntities(ITypedReferenceableInstance[] typedInstances) throws AtlasException {
         AtlasClient.EntityResult entityResult = repository.updateEntities(typedInstances);
         onEntitiesAddedUpdated(entityResult);
         return entityResult;
@@ -670,6 +712,19 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
     }
 
     private void onEntitiesAdded(List<String> guids) throws AtlasException {
+        if (guids.isEmpty()) {
+            return;
+        }
+        if (RequestContext.get().isEntityChangeListenersSkipped()) {
+            //The cached definitions must not outlive the change, even if listeners aren't notified
+            entityDefinitionCache.invalidate(guids);
+            return;
+        }
+
+        notifyEntitiesAdded(guids);
+    }
+
+    private void notifyEntitiesAdded(List<String> guids) throws AtlasException {
         List<ITypedReferenceableInstance> entities = loadEntities(guids);
         for (EntityChangeListener listener : entityChangeListeners) {
             listener.onEntitiesAdded(entities);
@@ -692,6 +747,19 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
     }
 
     private void onEntitiesUpdated(List<String> guids) throws AtlasException {
+        if (guids.isEmpty()) {
+            return;
+        }
+        if (RequestContext.get().isEntityChangeListenersSkipped()) {
+            //The cached definitions must not outlive the change, even if listeners aren't notified
+            entityDefinitionCache.invalidate(guids);
+            return;
+        }
+
+        notifyEntitiesUpdated(guids);
+    }
+
+    private void notifyEntitiesUpdated(List<String> guids) throws AtlasException {
         List<ITypedReferenceableInstance> entities = loadEntities(guids);
         for (EntityChangeListener listener : entityChangeListeners) {
             listener.onEntitiesUpdated(entities);
@@ -718,6 +786,18 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
         entityChangeListeners.remove(listener);
     }
 
+    @Override
+    public void notifyEntityChangeListeners(List<String> addedGuids, List<String> updatedGuids)
+            throws AtlasException {
+        //The listeners are notified even if the current request skips them
+        if (!addedGuids.isEmpty()) {
+            notifyEntitiesAdded(addedGuids);
+        }
+        if (!updatedGuids.isEmpty()) {
+            notifyEntitiesUpdated(updatedGuids);
+        }
+    }
+
     @Override
     public List<EntityAuditEvent> getAuditEvents(String guid, String startKey, short count) throws AtlasException {
         ParamChecker.notEmpty(guid, "entity id");
@@ -752,7 +832,21 @@ public class DefaultMetadataService implements MetadataService, ActiveStateChang
     }
 
     private AtlasClient.EntityResult deleteGuids(List<String> deleteCandidateGuids) throws AtlasException {
-        AtlasClient.EntityResult entityResult = repository.deleteEntities(deleteCandidateGuids);
+        AtlasClient.EntityResult entityResult;
+        try {
+            entityResult = repository.deleteEntitiesInChunks(deleteCandidateGuids);
+        } catch (RepositoryException e) {
+            //The chunks deleted before the failure are committed, so the listeners are notified of them
+            RequestContext requestContext = RequestContext.get();
+            AtlasClient.EntityResult partialResult = new AtlasClient.EntityResult(
+                    requestContext.getCreatedEntityIds(), requestContext.getUpdatedEntityIds(),
+                    requestContext.getDeletedEntityIds());
+            if (!partialResult.getUpdateEntities().isEmpty() || !partialResult.getDeletedEntities().isEmpty()) {
+                LOG.warn("Deleted {} entities before failure", partialResult.getDeletedEntities().size());
+                onEntitiesAddedUpdated(partialResult);
+            }
+            throw e;
+        }
         onEntitiesAddedUpdated(entityResult);
         return entityResult;
     }
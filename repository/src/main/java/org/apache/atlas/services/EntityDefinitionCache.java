@@ -0,0 +1,294 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.listener.EntityChangeListener;
+import org.apache.atlas.repository.MetadataRepository;
+import org.apache.atlas.typesystem.IStruct;
+import org.apache.atlas.typesystem.ITypedInstance;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+import org.apache.atlas.typesystem.json.InstanceSerialization;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.apache.atlas.typesystem.types.AttributeInfo;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of serialized entity definitions by guid, bounded by the total size of the definitions.
+ *
+ * The definition of an entity includes its composite entities and the ids and states of the entities it refers to,
+ * so a cached definition is invalidated when any of these entities is changed, as notified to entity change
+ * listeners. The cache is cleared when types are changed, as the definitions include the attributes of the types.
+ */
+@Singleton
+public class EntityDefinitionCache extends AbstractInvalidatingCache<String, EntityDefinitionCache.CachedDefinition>
+        implements EntityChangeListener {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityDefinitionCache.class);
+
+    public static final String MAX_SIZE_PROPERTY = "atlas.entity.cache.max.size.mb";
+    public static final long DEFAULT_MAX_SIZE_MB = 64;
+
+    private final Cache<String, CachedDefinition> cache;
+
+    // guids of the cached definitions that depend on an entity, by the guid of the entity
+    private final ConcurrentMap<String, Set<String>> dependents = new ConcurrentHashMap<>();
+
+    @Inject
+    public EntityDefinitionCache() throws AtlasException {
+        this(ApplicationProperties.get());
+    }
+
+    EntityDefinitionCache(Configuration configuration) {
+        super("entity definition cache");
+        long maxSizeMb = configuration.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE_MB);
+        if (maxSizeMb <= 0) {
+            LOG.info("Entity definition cache is disabled");
+            cache = null;
+            return;
+        }
+
+        cache = CacheBuilder.newBuilder()
+                //Strings take two bytes per character
+                .maximumWeight(maxSizeMb * 1024 * 1024 / 2)
+                .weigher(new Weigher<String, CachedDefinition>() {
+                    @Override
+                    public int weigh(String guid, CachedDefinition definition) {
+                        return definition.json.length();
+                    }
+                })
+                .removalListener(new RemovalListener<String, CachedDefinition>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<String, CachedDefinition> notification) {
+                        removeDependencies(notification.getKey(), notification.getValue());
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    protected Cache<String, CachedDefinition> getCache() {
+        return cache;
+    }
+
+    static class CachedDefinition {
+        private final String json;
+        private final Set<String> dependencies;
+
+        CachedDefinition(String json, Set<String> dependencies) {
+            this.json = json;
+            this.dependencies = dependencies;
+        }
+    }
+
+    /**
+     * Returns the serialized definition of the entity, reading it from the repository and caching it if it is not
+     * cached.
+     */
+    public String get(String guid, MetadataRepository repository) throws AtlasException {
+        if (cache == null) {
+            return InstanceSerialization.toJson(repository.getEntityDefinition(guid), true);
+        }
+
+        CachedDefinition definition = cache.getIfPresent(guid);
+        if (definition != null) {
+            return definition.json;
+        }
+
+        long invalidationsBefore = getInvalidations();
+        ITypedReferenceableInstance instance = repository.getEntityDefinition(guid);
+        String json = InstanceSerialization.toJson(instance, true);
+        put(guid, instance, json, invalidationsBefore);
+        return json;
+    }
+
+    /**
+     * Returns the serialized definitions of the entities, reading the ones that are not cached from the repository
+     * in one batch and caching them.
+     *
+     * @return the definitions by guid, in the order of the given guids. Entities that don't exist are left out
+     */
+    public Map<String, String> getAll(List<String> guids, MetadataRepository repository) throws AtlasException {
+        Map<String, String> definitions = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String guid : guids) {
+            CachedDefinition definition = cache == null ? null : cache.getIfPresent(guid);
+            if (definition != null) {
+                definitions.put(guid, definition.json);
+            } else {
+                uncached.add(guid);
+            }
+        }
+
+        if (!uncached.isEmpty()) {
+            long invalidationsBefore = getInvalidations();
+            for (Map.Entry<String, ITypedReferenceableInstance> entry :
+                    repository.getEntityDefinitions(uncached).entrySet()) {
+                String json = InstanceSerialization.toJson(entry.getValue(), true);
+                if (cache != null) {
+                    put(entry.getKey(), entry.getValue(), json, invalidationsBefore);
+                }
+                definitions.put(entry.getKey(), json);
+            }
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String guid : guids) {
+            if (definitions.containsKey(guid)) {
+                result.put(guid, definitions.get(guid));
+            }
+        }
+        return result;
+    }
+
+    private void put(String guid, ITypedReferenceableInstance instance, String json, long invalidationsBefore)
+            throws AtlasException {
+        Set<String> dependencies = new HashSet<>();
+        collectGuids(instance, dependencies);
+        for (String dependency : dependencies) {
+            Set<String> guids = dependents.get(dependency);
+            if (guids == null) {
+                Set<String> newGuids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                guids = dependents.putIfAbsent(dependency, newGuids);
+                if (guids == null) {
+                    guids = newGuids;
+                }
+            }
+            guids.add(guid);
+        }
+
+        //The entity may have been changed while it was loaded
+        put(guid, new CachedDefinition(json, dependencies), invalidationsBefore);
+    }
+
+    /**
+     * Invalidates the definitions of the given entities and of the entities whose definitions include them.
+     */
+    public void invalidate(Collection<String> guids) {
+        if (cache == null) {
+            return;
+        }
+
+        recordInvalidation();
+        for (String guid : guids) {
+            cache.invalidate(guid);
+            Set<String> guidDependents = dependents.remove(guid);
+            if (guidDependents != null) {
+                cache.invalidateAll(guidDependents);
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        super.invalidateAll();
+        dependents.clear();
+    }
+
+    private void removeDependencies(String guid, CachedDefinition definition) {
+        if (guid == null || definition == null) {
+            return;
+        }
+        for (String dependency : definition.dependencies) {
+            Set<String> guids = dependents.get(dependency);
+            if (guids != null) {
+                guids.remove(guid);
+            }
+        }
+    }
+
+    private void collectGuids(Object value, Set<String> guids) throws AtlasException {
+        if (value instanceof Id) {
+            guids.add(((Id) value)._getId());
+        } else if (value instanceof ITypedInstance) {
+            ITypedInstance instance = (ITypedInstance) value;
+            if (instance instanceof ITypedReferenceableInstance) {
+                guids.add(((ITypedReferenceableInstance) instance).getId()._getId());
+            }
+            for (AttributeInfo attributeInfo : instance.fieldMapping().fields.values()) {
+                collectGuids(instance.get(attributeInfo.name), guids);
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                collectGuids(element, guids);
+            }
+        } else if (value instanceof Map) {
+            for (Object element : ((Map<?, ?>) value).values()) {
+                collectGuids(element, guids);
+            }
+        }
+    }
+
+    private static Set<String> getGuids(Collection<ITypedReferenceableInstance> entities) {
+        Set<String> guids = new HashSet<>();
+        for (ITypedReferenceableInstance entity : entities) {
+            guids.add(entity.getId()._getId());
+        }
+        return guids;
+    }
+
+    // ----- EntityChangeListener --------------------------------------------
+
+    @Override
+    public void onEntitiesAdded(Collection<ITypedReferenceableInstance> entities) {
+        invalidate(getGuids(entities));
+    }
+
+    @Override
+    public void onEntitiesUpdated(Collection<ITypedReferenceableInstance> entities) {
+        invalidate(getGuids(entities));
+    }
+
+    @Override
+    public void onTraitAdded(ITypedReferenceableInstance entity, IStruct trait) {
+        invalidate(Collections.singleton(entity.getId()._getId()));
+    }
+
+    @Override
+    public void onTraitDeleted(ITypedReferenceableInstance entity, String traitName) {
+        invalidate(Collections.singleton(entity.getId()._getId()));
+    }
+
+    @Override
+    public void onEntitiesDeleted(Collection<ITypedReferenceableInstance> entities) {
+        invalidate(getGuids(entities));
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas;
+
+import com.thinkaurelius.titan.core.TitanGraph;
+import com.thinkaurelius.titan.diskstorage.locking.PermanentLockingException;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.atlas.repository.RepositoryException;
+import org.apache.atlas.repository.graph.GraphProvider;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+public class GraphTransactionInterceptorTest {
+
+    private TitanGraph titanGraph;
+    private MethodInvocation invocation;
+    private GraphTransactionInterceptor interceptor;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        RequestContext.createContext();
+        titanGraph = mock(TitanGraph.class);
+        invocation = mock(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(getClass().getDeclaredMethod("update"));
+
+        GraphProvider<TitanGraph> graphProvider = mock(GraphProvider.class);
+        when(graphProvider.get()).thenReturn(titanGraph);
+        interceptor = new GraphTransactionInterceptor();
+        interceptor.graphProvider = graphProvider;
+    }
+
+    @GraphTransaction
+    void update() {
+    }
+
+    @GraphTransaction(readOnly = true)
+    void read() {
+    }
+
+    @Test
+    public void testLockContentionIsRetried() throws Throwable {
+        when(invocation.proceed()).thenAnswer(new Answer<Object>() {
+            private int calls = 0;
+
+            @Override
+            public Object answer(InvocationOnMock mockInvocation) throws Throwable {
+                RequestContext.get().recordEntityCreate(Arrays.asList("guid" + calls));
+                if (calls++ < 2) {
+                    throw new RepositoryException(new PermanentLockingException("Lock contention"));
+                }
+                return "done";
+            }
+        });
+        long retries = GraphTransactionInterceptor.getMetrics().get("retries");
+
+        assertEquals(interceptor.invoke(invocation), "done");
+        verify(titanGraph, times(2)).rollback();
+        verify(titanGraph).commit();
+        assertEquals((long) GraphTransactionInterceptor.getMetrics().get("retries"), retries + 2);
+        //Only the entities of the attempt that was committed are reported
+        assertEquals(RequestContext.get().getCreatedEntityIds(), Arrays.asList("guid2"));
+    }
+
+    @Test
+    public void testNestedMethodsJoinOutermostTransaction() throws Throwable {
+        final MethodInvocation nestedUpdate = mock(MethodInvocation.class);
+        when(nestedUpdate.getMethod()).thenReturn(getClass().getDeclaredMethod("update"));
+        final MethodInvocation nestedRead = mock(MethodInvocation.class);
+        when(nestedRead.getMethod()).thenReturn(getClass().getDeclaredMethod("read"));
+        when(invocation.proceed()).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock mockInvocation) throws Throwable {
+                interceptor.invoke(nestedRead);
+                interceptor.invoke(nestedUpdate);
+                return "done";
+            }
+        });
+
+        assertEquals(interceptor.invoke(invocation), "done");
+        //Only the outermost method commits, and the nested read-only method doesn't discard the transaction
+        verify(titanGraph, times(1)).commit();
+        verify(titanGraph, never()).rollback();
+    }
+
+    @Test
+    public void testReadOnlyTransactionIsDiscarded() throws Throwable {
+        when(invocation.getMethod()).thenReturn(getClass().getDeclaredMethod("read"));
+        when(invocation.proceed()).thenReturn("done");
+
+        assertEquals(interceptor.invoke(invocation), "done");
+        verify(titanGraph).rollback();
+        verify(titanGraph, never()).commit();
+    }
+
+    @Test
+    public void testOtherFailuresAreNotRetried() throws Throwable {
+        when(invocation.proceed()).thenThrow(new RepositoryException("Invalid entity"));
+
+        try {
+            interceptor.invoke(invocation);
+            fail("Expected RepositoryException");
+        } catch (RepositoryException e) {
+            //expected
+        }
+        verify(invocation, times(1)).proceed();
+        verify(titanGraph).rollback();
+        verify(titanGraph, never()).commit();
+    }
+}
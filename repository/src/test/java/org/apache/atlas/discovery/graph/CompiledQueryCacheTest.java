@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.discovery.graph;
+
+import org.apache.atlas.query.GremlinQuery;
+import org.apache.atlas.typesystem.types.IDataType;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class CompiledQueryCacheTest {
+
+    private CompiledQueryCache cache;
+    private GremlinQuery gremlinQuery;
+
+    @BeforeMethod
+    public void setup() {
+        cache = new CompiledQueryCache(new PropertiesConfiguration());
+        gremlinQuery = mock(GremlinQuery.class);
+    }
+
+    @Test
+    public void testQueriesDifferingInWhitespaceShareEntry() {
+        cache.put("hive_table where name = \"a  b\"", gremlinQuery, cache.getInvalidations());
+
+        assertSame(cache.get("  hive_table  where\nname = \"a  b\" "), gremlinQuery);
+        assertNull(cache.get("hive_table where name = \"a b\""));
+        assertEquals(CompiledQueryCache.normalize(" `hive table`   select  'x  \\'  y' "),
+                "`hive table` select 'x  \\'  y'");
+    }
+
+    @Test
+    public void testTypeChangesInvalidateCache() {
+        cache.put("hive_table", gremlinQuery, cache.getInvalidations());
+        cache.onChange(Collections.<IDataType>emptyList());
+        assertNull(cache.get("hive_table"));
+
+        //A query compiled before the types changed is not cached
+        long invalidationsBefore = cache.getInvalidations();
+        cache.onAdd(Collections.<IDataType>emptyList());
+        cache.put("hive_table", gremlinQuery, invalidationsBefore);
+        assertNull(cache.get("hive_table"));
+    }
+
+    @Test
+    public void testMetrics() {
+        cache.put("hive_table", gremlinQuery, cache.getInvalidations());
+        cache.get("hive_table");
+        cache.get("hive_db");
+
+        Map<String, Long> metrics = cache.getMetrics();
+        assertEquals(metrics.get("hits"), Long.valueOf(1));
+        assertEquals(metrics.get("misses"), Long.valueOf(1));
+        assertEquals(metrics.get("size"), Long.valueOf(1));
+
+        cache.instanceIsActive();
+        assertEquals(cache.getMetrics().get("size"), Long.valueOf(0));
+    }
+}
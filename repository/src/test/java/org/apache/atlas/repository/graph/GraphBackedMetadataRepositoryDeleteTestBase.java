@@ -74,7 +74,10 @@ import static org.apache.atlas.TestUtils.TABLE_TYPE;
 import static org.apache.atlas.TestUtils.createColumnEntity;
 import static org.apache.atlas.TestUtils.createDBEntity;
 import static org.apache.atlas.TestUtils.createTableEntity;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
@@ -93,6 +96,8 @@ public abstract class GraphBackedMetadataRepositoryDeleteTestBase {
 
     protected GraphBackedMetadataRepository repositoryService;
 
+    private DeleteHandler deleteHandler;
+
     private TypeSystem typeSystem;
 
     @BeforeClass
@@ -102,7 +107,8 @@ public abstract class GraphBackedMetadataRepositoryDeleteTestBase {
 
         new GraphBackedSearchIndexer(graphProvider);
 
-        repositoryService = new GraphBackedMetadataRepository(graphProvider, getDeleteHandler(typeSystem));
+        deleteHandler = getDeleteHandler(typeSystem);
+        repositoryService = new GraphBackedMetadataRepository(graphProvider, deleteHandler);
 
         TestUtils.defineDeptEmployeeTypes(typeSystem);
         TestUtils.createHiveTypes(typeSystem);
@@ -341,6 +347,64 @@ public abstract class GraphBackedMetadataRepositoryDeleteTestBase {
 
     protected abstract void assertVerticesDeleted(List<Vertex> vertices);
 
+    @Test
+    public void testDeleteEntitiesInChunks() throws Exception {
+        String hrDeptGuid = createHrDeptGraph();
+        ITypedReferenceableInstance hrDept = repositoryService.getEntityDefinition(hrDeptGuid);
+        Map<String, String> nameGuidMap = getEmployeeNameGuidMap(hrDept);
+
+        ChunkedEntityDeleter deleter = new ChunkedEntityDeleter(graphProvider.get(), deleteHandler, 2, 1);
+        ChunkedEntityDeleter.Plan plan = deleter.plan(Arrays.asList(hrDeptGuid));
+        assertEquals(plan.size(), 5);
+        assertEquals(plan.roots, Arrays.asList(hrDeptGuid));
+
+        RequestContext.createContext();
+        deleter.delete(plan);
+
+        List<String> deletedEntities = RequestContext.get().getDeletedEntityIds();
+        assertEquals(deletedEntities.size(), 5);
+        //The department is deleted after its employees
+        assertEquals(deletedEntities.get(4), hrDeptGuid);
+        assertEntityDeleted(hrDeptGuid);
+        for (String employeeGuid : nameGuidMap.values()) {
+            assertTrue(deletedEntities.contains(employeeGuid));
+            assertEntityDeleted(employeeGuid);
+        }
+    }
+
+    @Test
+    public void testDeleteEntitiesInChunksFailure() throws Exception {
+        String hrDeptGuid = createHrDeptGraph();
+        ITypedReferenceableInstance hrDept = repositoryService.getEntityDefinition(hrDeptGuid);
+        Map<String, String> nameGuidMap = getEmployeeNameGuidMap(hrDept);
+
+        //Fail the chunk of the department, after its employees are deleted
+        DeleteHandler failingDeleteHandler = spy(deleteHandler);
+        Vertex hrDeptVertex = GraphHelper.getInstance().getVertexForGUID(hrDeptGuid);
+        doThrow(new AtlasException("failed")).when(failingDeleteHandler).deleteEntity(hrDeptVertex);
+
+        ChunkedEntityDeleter deleter = new ChunkedEntityDeleter(graphProvider.get(), failingDeleteHandler, 2, 1);
+        ChunkedEntityDeleter.Plan plan = deleter.plan(Arrays.asList(hrDeptGuid));
+
+        RequestContext.createContext();
+        try {
+            deleter.delete(plan);
+            fail("Expected RepositoryException");
+        } catch (RepositoryException e) {
+            //expected
+        }
+
+        //Only the deletes of the committed chunks are recorded
+        List<String> deletedEntities = RequestContext.get().getDeletedEntityIds();
+        assertEquals(deletedEntities.size(), 4);
+        assertFalse(deletedEntities.contains(hrDeptGuid));
+        assertEquals(repositoryService.getEntityDefinition(hrDeptGuid).getId().getState(), Id.EntityState.ACTIVE);
+        for (String employeeGuid : nameGuidMap.values()) {
+            assertTrue(deletedEntities.contains(employeeGuid));
+            assertEntityDeleted(employeeGuid);
+        }
+    }
+
     @Test
     public void testDeleteEntitiesWithCompositeMapReference() throws Exception {
         // Define type for map value.
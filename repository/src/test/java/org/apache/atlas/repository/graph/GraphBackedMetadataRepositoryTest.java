@@ -26,6 +26,7 @@ import com.tinkerpop.blueprints.Compare;
 import com.tinkerpop.blueprints.GraphQuery;
 import com.tinkerpop.blueprints.Vertex;
 
+import org.apache.atlas.AtlasClient;
 import org.apache.atlas.GraphTransaction;
 import org.apache.atlas.RepositoryMetadataModule;
 import org.apache.atlas.RequestContext;
@@ -33,6 +34,7 @@ import org.apache.atlas.TestUtils;
 import org.apache.atlas.discovery.graph.GraphBackedDiscoveryService;
 import org.apache.atlas.repository.Constants;
 import org.apache.atlas.repository.RepositoryException;
+import org.apache.atlas.services.EntityListPage;
 import org.apache.atlas.typesystem.IStruct;
 import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.ITypedStruct;
@@ -65,8 +67,10 @@ import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -87,6 +91,9 @@ public class GraphBackedMetadataRepositoryTest {
     @Inject
     private GraphBackedDiscoveryService discoveryService;
 
+    @Inject
+    private AsyncFullTextIndexer fullTextIndexer;
+
     private TypeSystem typeSystem;
     private String guid;
 
@@ -142,6 +149,36 @@ public class GraphBackedMetadataRepositoryTest {
         Assert.assertEquals(entity.getId().getState(), Id.EntityState.ACTIVE);
     }
 
+    @Test(dependsOnMethods = "testSubmitEntity")
+    public void testGetEntityDefinitionWithAttributes() throws Exception {
+        ITypedReferenceableInstance entity =
+                repositoryService.getEntityDefinition(guid, ImmutableSet.of("employees"), false);
+        Assert.assertNull(entity.get("name"));
+        List<?> employees = (List<?>) entity.get("employees");
+        Assert.assertEquals(employees.size(), 4);
+        Assert.assertFalse(employees.get(0) instanceof Id);
+
+        entity = repositoryService.getEntityDefinition(guid, null, true);
+        Assert.assertEquals(entity.get("name"), "hr");
+        employees = (List<?>) entity.get("employees");
+        Assert.assertEquals(employees.size(), 4);
+        Assert.assertTrue(employees.get(0) instanceof Id);
+    }
+
+    @Test(dependsOnMethods = "testSubmitEntity", expectedExceptions = RepositoryException.class)
+    public void testGetEntityDefinitionWithInvalidAttribute() throws Exception {
+        repositoryService.getEntityDefinition(guid, ImmutableSet.of("blah"), false);
+    }
+
+    @Test(dependsOnMethods = "testSubmitEntity")
+    public void testGetEntityDefinitions() throws Exception {
+        Map<String, ITypedReferenceableInstance> entities =
+                repositoryService.getEntityDefinitions(Arrays.asList(new String[]{"blah", guid}));
+        Assert.assertEquals(entities.size(), 1);
+        Assert.assertEquals(entities.get(guid).get("name"), "hr");
+        Assert.assertEquals(((List<?>) entities.get(guid).get("employees")).size(), 4);
+    }
+
     @Test(expectedExceptions = EntityNotFoundException.class)
     public void testGetEntityDefinitionNonExistent() throws Exception {
         repositoryService.getEntityDefinition("blah");
@@ -156,6 +193,44 @@ public class GraphBackedMetadataRepositoryTest {
         Assert.assertTrue(entityList.contains(guid));
     }
 
+    @Test(dependsOnMethods = "testSubmitEntity")
+    public void testGetEntityListInPages() throws Exception {
+        List<String> entityList = repositoryService.getEntityList(TestUtils.PERSON_TYPE);
+        Assert.assertTrue(entityList.size() >= 2);
+
+        List<String> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            EntityListPage page = repositoryService.getEntityList(TestUtils.PERSON_TYPE, cursor, 1);
+            Assert.assertEquals(page.getGuids().size(), 1);
+            pages.addAll(page.getGuids());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        Assert.assertEquals(pages.size(), entityList.size());
+        Assert.assertEquals(new HashSet<>(pages), new HashSet<>(entityList));
+    }
+
+    @Test(dependsOnMethods = "testSubmitEntity")
+    public void testEntityListCursorCanOnlyBeUsedOnce() throws Exception {
+        EntityListPage page = repositoryService.getEntityList(TestUtils.PERSON_TYPE, null, 1);
+        String cursor = page.getNextCursor();
+        Assert.assertNotNull(cursor);
+
+        try {
+            repositoryService.getEntityList(TestUtils.DEPARTMENT_TYPE, cursor, 1);
+            Assert.fail("Expected IllegalArgumentException for a cursor of another type");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+
+        try {
+            repositoryService.getEntityList(TestUtils.PERSON_TYPE, cursor, 1);
+            Assert.fail("Expected IllegalArgumentException for a used cursor");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
     @Test
     public void testGetTypeAttributeName() throws Exception {
         Assert.assertEquals(repositoryService.getTypeAttributeName(), Constants.ENTITY_TYPE_PROPERTY_KEY);
@@ -192,6 +267,107 @@ public class GraphBackedMetadataRepositoryTest {
         System.out.println("added table = " + guids.get(6));
     }
 
+    @Test
+    public void testCreateEntitiesWithExistingUniqueAttributes() throws Exception {
+        ClassType dbType = typeSystem.getDataType(ClassType.class, TestUtils.DATABASE_TYPE);
+        String dbName1 = "db" + UUID.randomUUID();
+        String dbName2 = "db" + UUID.randomUUID();
+
+        List<String> guids = repositoryService.createEntities(dbType.convert(createDatabase(dbName1),
+                Multiplicity.REQUIRED));
+        Assert.assertEquals(guids.size(), 1);
+
+        //The existing database is resolved by its unique attribute along with a new one
+        guids = repositoryService.createEntities(
+                dbType.convert(createDatabase(dbName1), Multiplicity.REQUIRED),
+                dbType.convert(createDatabase(dbName2), Multiplicity.REQUIRED),
+                dbType.convert(createDatabase(dbName2), Multiplicity.REQUIRED));
+        Assert.assertEquals(guids.size(), 1);
+        Assert.assertEquals(repositoryService.getEntityDefinition(guids.get(0)).get(TestUtils.NAME), dbName2);
+    }
+
+    @Test
+    public void testUpdateEntitiesWithUnchangedSignature() throws Exception {
+        ClassType dbType = typeSystem.getDataType(ClassType.class, TestUtils.DATABASE_TYPE);
+        String dbName = "db" + UUID.randomUUID();
+        String guid = repositoryService.createEntities(dbType.convert(createDatabase(dbName),
+                Multiplicity.REQUIRED)).get(0);
+
+        //Full update with the same values doesn't update the entity
+        RequestContext.createContext();
+        AtlasClient.EntityResult entityResult = repositoryService.updateEntities(
+                dbType.convert(createDatabase(dbName), Multiplicity.REQUIRED));
+        Assert.assertTrue(entityResult.getUpdateEntities().isEmpty());
+
+        Referenceable database = createDatabase(dbName);
+        database.set("description", "bar database");
+        RequestContext.createContext();
+        entityResult = repositoryService.updateEntities(dbType.convert(database, Multiplicity.REQUIRED));
+        Assert.assertEquals(entityResult.getUpdateEntities(), Arrays.asList(guid));
+        Assert.assertEquals(repositoryService.getEntityDefinition(guid).get("description"), "bar database");
+    }
+
+    @Test
+    public void testUpdateArrayOfClassKeepsEdgesOfUnchangedReferences() throws Exception {
+        ClassType dbType = typeSystem.getDataType(ClassType.class, TestUtils.DATABASE_TYPE);
+        ClassType tableType = typeSystem.getDataType(ClassType.class, TestUtils.TABLE_TYPE);
+        String dbGuid = repositoryService.createEntities(dbType.convert(TestUtils.createDBEntity(),
+                Multiplicity.REQUIRED)).get(0);
+        Referenceable table = TestUtils.createTableEntity(dbGuid);
+        table.set(TestUtils.COLUMNS_ATTR_NAME, ImmutableList.of(TestUtils.createColumnEntity(),
+                TestUtils.createColumnEntity(), TestUtils.createColumnEntity()));
+        repositoryService.createEntities(tableType.convert(table, Multiplicity.REQUIRED));
+
+        ITypedReferenceableInstance tableInstance = repositoryService.getEntityDefinition(TestUtils.TABLE_TYPE,
+                TestUtils.NAME, table.get(TestUtils.NAME));
+        String tableGuid = tableInstance.getId()._getId();
+        List<ITypedReferenceableInstance> columns =
+                (List<ITypedReferenceableInstance>) tableInstance.get(TestUtils.COLUMNS_ATTR_NAME);
+        String propertyName = GraphHelper.getQualifiedFieldName(tableType, TestUtils.COLUMNS_ATTR_NAME);
+        List<String> edgeIds = GraphHelper.getInstance().getVertexForGUID(tableGuid).getProperty(propertyName);
+        graphProvider.get().rollback();
+
+        //Reorder the columns and remove one of them
+        tableInstance.set(TestUtils.COLUMNS_ATTR_NAME, ImmutableList.of(columns.get(2), columns.get(0)));
+        RequestContext.createContext();
+        AtlasClient.EntityResult entityResult = repositoryService.updatePartial(tableInstance);
+        Assert.assertEquals(entityResult.getDeletedEntities(),
+                Arrays.asList(new String[]{columns.get(1).getId()._getId()}));
+
+        List<String> newEdgeIds = GraphHelper.getInstance().getVertexForGUID(tableGuid).getProperty(propertyName);
+        Assert.assertEquals(newEdgeIds.subList(0, 2), Arrays.asList(new String[]{edgeIds.get(2), edgeIds.get(0)}));
+        graphProvider.get().rollback();
+    }
+
+    @Test
+    public void testAsyncFullTextIndexing() throws Exception {
+        ClassType dbType = typeSystem.getDataType(ClassType.class, TestUtils.DATABASE_TYPE);
+        String dbName = "db" + UUID.randomUUID();
+        String guid = repositoryService.createEntities(dbType.convert(createDatabase(dbName),
+                Multiplicity.REQUIRED)).get(0);
+
+        //Mark the full text of the entity as pending
+        TitanGraph titanGraph = graphProvider.get();
+        Vertex vertex = GraphHelper.getInstance().getVertexForGUID(guid);
+        vertex.removeProperty(Constants.ENTITY_TEXT_PROPERTY_KEY);
+        vertex.setProperty(Constants.FULL_TEXT_PENDING_PROPERTY_KEY, System.currentTimeMillis());
+        titanGraph.commit();
+
+        Assert.assertEquals(fullTextIndexer.indexEntities(Arrays.asList(guid)), 1);
+
+        vertex = GraphHelper.getInstance().getVertexForGUID(guid);
+        Assert.assertTrue(((String) vertex.getProperty(Constants.ENTITY_TEXT_PROPERTY_KEY)).contains(dbName));
+        Assert.assertNull(vertex.getProperty(Constants.FULL_TEXT_PENDING_PROPERTY_KEY));
+        titanGraph.rollback();
+    }
+
+    private Referenceable createDatabase(String name) {
+        Referenceable databaseInstance = new Referenceable(TestUtils.DATABASE_TYPE);
+        databaseInstance.set(TestUtils.NAME, name);
+        databaseInstance.set("description", "foo database");
+        return databaseInstance;
+    }
+
     @Test(dependsOnMethods = "testCreateEntity")
     public void testGetEntityDefinition() throws Exception {
         String guid = getGUID();
@@ -19,6 +19,7 @@
 package org.apache.atlas.repository.graph;
 
 import com.google.inject.Inject;
+import com.thinkaurelius.titan.core.EdgeLabel;
 import com.thinkaurelius.titan.core.PropertyKey;
 import com.thinkaurelius.titan.core.TitanGraph;
 import com.thinkaurelius.titan.core.schema.TitanGraphIndex;
@@ -113,6 +114,28 @@ public class GraphBackedSearchIndexerTest {
         verifyVertexIndexContains(managementSystem, Constants.VERTEX_TYPE_PROPERTY_KEY);
     }
 
+    @Test
+    public void verifyReferenceEdgeIndex() throws AtlasException {
+        TitanGraph titanGraph = graphProvider.get();
+        TypeSystem typeSystem = TypeSystem.getInstance();
+
+        String dbTypeName = "db" + RandomStringUtils.randomAlphanumeric(10);
+        String tableTypeName = "table" + RandomStringUtils.randomAlphanumeric(10);
+        ClassType dbType = typeSystem.defineClassType(createClassTypeDef(dbTypeName, null,
+                TypesUtil.createUniqueRequiredAttrDef("name", DataTypes.STRING_TYPE)));
+        ClassType tableType = typeSystem.defineClassType(createClassTypeDef(tableTypeName, null,
+                TypesUtil.createUniqueRequiredAttrDef("name", DataTypes.STRING_TYPE),
+                TypesUtil.createRequiredAttrDef("db", dbType)));
+        graphBackedSearchIndexer.onAdd(Arrays.asList(dbType, tableType));
+
+        TitanManagement managementSystem = titanGraph.getManagementSystem();
+        String edgeLabelName = GraphHelper.EDGE_LABEL_PREFIX + tableTypeName + ".db";
+        EdgeLabel edgeLabel = managementSystem.getEdgeLabel(edgeLabelName);
+        assertNotNull(edgeLabel);
+        assertNotNull(managementSystem.getRelationIndex(edgeLabel, edgeLabelName + "_state"));
+        managementSystem.rollback();
+    }
+
     @Test
     public void verifyUserDefinedTypeIndex() throws AtlasException {
         TitanGraph titanGraph = graphProvider.get();
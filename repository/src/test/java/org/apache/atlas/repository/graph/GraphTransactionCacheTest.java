@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.repository.graph;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class GraphTransactionCacheTest {
+
+    @Test
+    public void testCacheIsOnlyActiveInTransaction() {
+        Vertex vertex = mock(Vertex.class);
+
+        GraphTransactionCache.putVertex("guid", vertex);
+        assertNull(GraphTransactionCache.getVertex("guid"));
+
+        GraphTransactionCache.begin();
+        GraphTransactionCache.putVertex("guid", vertex);
+        assertEquals(GraphTransactionCache.getVertex("guid"), vertex);
+
+        //nested transactions clear the cache when they end, but keep it active
+        GraphTransactionCache.begin();
+        GraphTransactionCache.end();
+        assertNull(GraphTransactionCache.getVertex("guid"));
+        GraphTransactionCache.putVertex("guid", vertex);
+        assertEquals(GraphTransactionCache.getVertex("guid"), vertex);
+
+        GraphTransactionCache.end();
+        assertNull(GraphTransactionCache.getVertex("guid"));
+    }
+
+    @Test
+    public void testChangedEdgeIsRemoved() {
+        Vertex vertex = mock(Vertex.class);
+        when(vertex.getId()).thenReturn(1L);
+        Edge edge = mock(Edge.class);
+        when(edge.getVertex(Direction.OUT)).thenReturn(vertex);
+        when(edge.getLabel()).thenReturn("label");
+
+        GraphTransactionCache.begin();
+        try {
+            GraphTransactionCache.putActiveEdge(vertex, "label", edge);
+            assertEquals(GraphTransactionCache.getActiveEdge(vertex, "label"), edge);
+
+            GraphTransactionCache.onEdgeChanged(edge);
+            assertNull(GraphTransactionCache.getActiveEdge(vertex, "label"));
+        } finally {
+            GraphTransactionCache.end();
+        }
+    }
+
+    @Test
+    public void testFullMappingIsCachedInTransaction() throws Exception {
+        ITypedReferenceableInstance instance = mock(ITypedReferenceableInstance.class);
+        Vertex vertex = mock(Vertex.class);
+        GraphToTypedInstanceMapper mapper = new GraphToTypedInstanceMapper(null);
+
+        GraphTransactionCache.begin();
+        try {
+            GraphTransactionCache.putInstance("guid", instance);
+            assertSame(mapper.mapGraphToTypedInstance("guid", vertex), instance);
+            verifyZeroInteractions(vertex);
+        } finally {
+            GraphTransactionCache.end();
+        }
+    }
+}
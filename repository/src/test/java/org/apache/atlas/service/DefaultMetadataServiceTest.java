@@ -247,6 +247,31 @@ public class DefaultMetadataServiceTest {
         assertAuditEvents(id, EntityAuditEvent.EntityAuditAction.ENTITY_DELETE);
     }
 
+    @Test
+    public void testEntityDefinitionCacheIsInvalidated() throws Exception {
+        Referenceable tableEntity = createTableEntity(createInstance(createDBEntity()));
+        Referenceable column = createColumnEntity();
+        tableEntity.set(COLUMNS_ATTR_NAME, ImmutableList.of(column));
+        String tableGuid = createInstance(tableEntity);
+        Referenceable tableDefinition =
+                InstanceSerialization.fromJsonReferenceable(metadataService.getEntityDefinition(tableGuid), true);
+        String columnGuid = ((List<Referenceable>) tableDefinition.get(COLUMNS_ATTR_NAME)).get(0).getId()._getId();
+
+        //Served from the cache
+        assertEquals(metadataService.getEntityDefinition(tableGuid), metadataService.getEntityDefinition(tableGuid));
+
+        //Updating a composite entity invalidates the definition of its owner
+        metadataService.updateEntityAttributeByGuid(columnGuid, "type", "INT");
+        tableDefinition =
+                InstanceSerialization.fromJsonReferenceable(metadataService.getEntityDefinition(tableGuid), true);
+        assertEquals(((List<Referenceable>) tableDefinition.get(COLUMNS_ATTR_NAME)).get(0).get("type"), "INT");
+
+        metadataService.addTrait(tableGuid, InstanceSerialization.toJson(new Struct(PII), true));
+        tableDefinition =
+                InstanceSerialization.fromJsonReferenceable(metadataService.getEntityDefinition(tableGuid), true);
+        assertTrue(tableDefinition.getTraits().contains(PII));
+    }
+
     private AtlasClient.EntityResult deleteEntities(String... guids) throws AtlasException {
         RequestContext.createContext();
         return metadataService.deleteEntities(Arrays.asList(guids));
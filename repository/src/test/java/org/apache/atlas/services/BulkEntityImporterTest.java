@@ -0,0 +1,198 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.services;
+
+import org.apache.atlas.AtlasClient;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
+import org.apache.atlas.typesystem.Referenceable;
+import org.apache.atlas.typesystem.json.InstanceSerialization;
+import org.apache.atlas.typesystem.persistence.Id;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class BulkEntityImporterTest {
+
+    private MetadataService metadataService;
+    private List<Referenceable> imported;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        RequestContext.createContext();
+        imported = new ArrayList<>();
+        metadataService = mock(MetadataService.class);
+
+        when(metadataService.getTypedReferenceableInstance(any(Referenceable.class))).thenAnswer(
+                new Answer<ITypedReferenceableInstance>() {
+                    @Override
+                    public ITypedReferenceableInstance answer(InvocationOnMock invocation) {
+                        imported.add((Referenceable) invocation.getArguments()[0]);
+                        return mock(ITypedReferenceableInstance.class);
+                    }
+                });
+
+        //Assign guids to the entities converted since the last update
+        when(metadataService.updateEntities(any(ITypedReferenceableInstance[].class))).thenAnswer(
+                new Answer<AtlasClient.EntityResult>() {
+                    @Override
+                    public AtlasClient.EntityResult answer(InvocationOnMock invocation) {
+                        int count = ((ITypedReferenceableInstance[]) invocation.getArguments()[0]).length;
+                        List<String> guids = new ArrayList<>();
+                        for (Referenceable entity : imported.subList(imported.size() - count, imported.size())) {
+                            String guid = "guid" + entity.getId()._getId();
+                            RequestContext.get().recordAssignedId(entity.getId()._getId(), guid);
+                            guids.add(guid);
+                        }
+                        return new AtlasClient.EntityResult(guids, null, null);
+                    }
+                });
+    }
+
+    @Test
+    public void testReferencesAcrossChunksAreResolved() throws Exception {
+        Referenceable db = new Referenceable("hive_db");
+        db.set("name", "db1");
+        Referenceable table = new Referenceable("hive_table");
+        table.set("name", "table1");
+        table.set("db", db.getId());
+
+        String input = InstanceSerialization.toJson(db, true) + "\n\n" + InstanceSerialization.toJson(table, true);
+        BulkEntityImporter.Progress progress =
+                new BulkEntityImporter(metadataService, 1, true, true).importEntities(new StringReader(input), null);
+
+        assertEquals(progress.getProcessed(), 2);
+        assertEquals(progress.getCreated(), 2);
+        assertTrue(progress.getFailures().isEmpty());
+
+        Id dbId = (Id) imported.get(1).get("db");
+        assertEquals(dbId._getId(), "guid" + db.getId()._getId());
+        assertTrue(RequestContext.get().isFullTextDeferred());
+        assertTrue(RequestContext.get().isEntityChangeListenersSkipped());
+    }
+
+    @Test
+    public void testFailedEntitiesAreReported() throws Exception {
+        Referenceable db = new Referenceable("hive_db");
+        db.set("name", "db1");
+        String input = InstanceSerialization.toJson(db, true) + "\n{not json\n";
+
+        final List<Integer> chunks = new ArrayList<>();
+        BulkEntityImporter.Progress progress = new BulkEntityImporter(metadataService, 10, false, false)
+                .importEntities(new StringReader(input), new BulkEntityImporter.ProgressListener() {
+                    @Override
+                    public void onChunkImported(BulkEntityImporter.Progress progress) {
+                        chunks.add(progress.getProcessed());
+                    }
+                });
+
+        assertEquals(progress.getProcessed(), 2);
+        assertEquals(progress.getCreated(), 1);
+        assertEquals(new ArrayList<>(progress.getFailures().keySet()), Arrays.asList(2));
+        assertEquals(chunks, Arrays.asList(2));
+        assertFalse(RequestContext.get().isFullTextDeferred());
+    }
+
+    @Test
+    public void testEntityChangeListenersAreNotifiedAfterImport() throws Exception {
+        Referenceable db1 = new Referenceable("hive_db");
+        db1.set("name", "db1");
+        Referenceable db2 = new Referenceable("hive_db");
+        db2.set("name", "db2");
+        String input = InstanceSerialization.toJson(db1, true) + "\n" + InstanceSerialization.toJson(db2, true);
+
+        final List<Integer> chunks = new ArrayList<>();
+        new BulkEntityImporter(metadataService, 1, false, true).importEntities(new StringReader(input),
+                new BulkEntityImporter.ProgressListener() {
+                    @Override
+                    public void onChunkImported(BulkEntityImporter.Progress progress) throws IOException {
+                        chunks.add(progress.getProcessed());
+                        try {
+                            verify(metadataService, never()).notifyEntityChangeListeners(anyListOf(String.class),
+                                    anyListOf(String.class));
+                        } catch (AtlasException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                });
+
+        assertEquals(chunks, Arrays.asList(1, 2));
+        List<String> noGuids = Collections.emptyList();
+        verify(metadataService).notifyEntityChangeListeners(Arrays.asList("guid" + db1.getId()._getId()), noGuids);
+        verify(metadataService).notifyEntityChangeListeners(Arrays.asList("guid" + db2.getId()._getId()), noGuids);
+    }
+
+    @Test
+    public void testEntityReferencingLaterLineOfFailedChunkIsRetried() throws Exception {
+        //A chunk of more than one entity fails, and so does an entity that references an entity not imported yet
+        doAnswer(new Answer<AtlasClient.EntityResult>() {
+            @Override
+            public AtlasClient.EntityResult answer(InvocationOnMock invocation) throws AtlasException {
+                int count = ((ITypedReferenceableInstance[]) invocation.getArguments()[0]).length;
+                Referenceable entity = imported.get(imported.size() - 1);
+                Object db = entity.get("db");
+                if (count > 1 || (db instanceof Id && ((Id) db).isUnassigned())) {
+                    throw new AtlasException("Failed to import " + entity.getTypeName());
+                }
+
+                String guid = "guid" + entity.getId()._getId();
+                RequestContext.get().recordAssignedId(entity.getId()._getId(), guid);
+                return new AtlasClient.EntityResult(Arrays.asList(guid), null, null);
+            }
+        }).when(metadataService).updateEntities(any(ITypedReferenceableInstance[].class));
+
+        Referenceable db = new Referenceable("hive_db");
+        db.set("name", "db1");
+        Referenceable table = new Referenceable("hive_table");
+        table.set("name", "table1");
+        table.set("db", db.getId());
+        Referenceable badTable = new Referenceable("hive_table");
+        badTable.set("name", "table2");
+        badTable.set("db", new Id("hive_db"));
+
+        String input = InstanceSerialization.toJson(table, true) + "\n" + InstanceSerialization.toJson(db, true)
+                + "\n" + InstanceSerialization.toJson(badTable, true);
+        BulkEntityImporter.Progress progress =
+                new BulkEntityImporter(metadataService, 10, false, false).importEntities(new StringReader(input), null);
+
+        assertEquals(progress.getProcessed(), 3);
+        assertEquals(progress.getCreated(), 2);
+        assertEquals(new ArrayList<>(progress.getFailures().keySet()), Arrays.asList(3));
+    }
+}
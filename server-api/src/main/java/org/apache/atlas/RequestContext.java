@@ -27,8 +27,11 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class RequestContext {
@@ -40,6 +43,10 @@ public class RequestContext {
     private Set<String> updatedEntityIds = new LinkedHashSet<>();
     private Set<String> deletedEntityIds = new LinkedHashSet<>();
     private List<ITypedReferenceableInstance> deletedEntities = new ArrayList<>();
+    private Map<String, String> assignedIds = new HashMap<>();
+    private Set<String> entitiesBeingDeleted = new HashSet<>();
+    private boolean fullTextDeferred;
+    private boolean entityChangeListenersSkipped;
 
     private String user;
     private long requestTime;
@@ -120,8 +127,88 @@ public class RequestContext {
     public long getRequestTime() {
         return requestTime;
     }
+
+    /**
+     * Record the guid of the entity that an unassigned id in the request was resolved to.
+     */
+    public void recordAssignedId(String unassignedId, String guid) {
+        assignedIds.put(unassignedId, guid);
+    }
+
+    public Map<String, String> getAssignedIds() {
+        return assignedIds;
+    }
+
+    /**
+     * If set, the full text of the entities written in this request is computed by the asynchronous full text
+     * indexer instead of inline.
+     */
+    public void setFullTextDeferred(boolean fullTextDeferred) {
+        this.fullTextDeferred = fullTextDeferred;
+    }
+
+    public boolean isFullTextDeferred() {
+        return fullTextDeferred;
+    }
+
+    /**
+     * If set, entity change listeners (audit, notifications) are not called for the entities added or updated
+     * in this request.
+     */
+    public void setEntityChangeListenersSkipped(boolean entityChangeListenersSkipped) {
+        this.entityChangeListenersSkipped = entityChangeListenersSkipped;
+    }
+
+    public boolean isEntityChangeListenersSkipped() {
+        return entityChangeListenersSkipped;
+    }
     
+    /**
+     * @return the entity changes recorded so far, to restore with {@link #rollbackTo(Savepoint)}
+     */
+    public Savepoint createSavepoint() {
+        return new Savepoint(this);
+    }
+
+    /**
+     * Discards the entity changes recorded after the savepoint, e.g. when a transaction is rolled back to be retried.
+     */
+    public void rollbackTo(Savepoint savepoint) {
+        createdEntityIds = new LinkedHashSet<>(savepoint.createdEntityIds);
+        updatedEntityIds = new LinkedHashSet<>(savepoint.updatedEntityIds);
+        deletedEntityIds = new LinkedHashSet<>(savepoint.deletedEntityIds);
+        deletedEntities = new ArrayList<>(savepoint.deletedEntities);
+        assignedIds = new HashMap<>(savepoint.assignedIds);
+    }
+
+    /**
+     * The entity changes recorded in a request context at some point.
+     */
+    public static final class Savepoint {
+        private final Set<String> createdEntityIds;
+        private final Set<String> updatedEntityIds;
+        private final Set<String> deletedEntityIds;
+        private final List<ITypedReferenceableInstance> deletedEntities;
+        private final Map<String, String> assignedIds;
+
+        private Savepoint(RequestContext context) {
+            createdEntityIds = new LinkedHashSet<>(context.createdEntityIds);
+            updatedEntityIds = new LinkedHashSet<>(context.updatedEntityIds);
+            deletedEntityIds = new LinkedHashSet<>(context.deletedEntityIds);
+            deletedEntities = new ArrayList<>(context.deletedEntities);
+            assignedIds = new HashMap<>(context.assignedIds);
+        }
+    }
+
+    /**
+     * Records entities that are deleted by this request, but possibly in later transactions. References from these
+     * entities aren't updated when the entities they refer to are deleted.
+     */
+    public void recordEntitiesBeingDeleted(Collection<String> entityIds) {
+        this.entitiesBeingDeleted.addAll(entityIds);
+    }
+
     public boolean isDeletedEntity(String entityGuid) {
-        return deletedEntityIds.contains(entityGuid);
+        return deletedEntityIds.contains(entityGuid) || entitiesBeingDeleted.contains(entityGuid);
     }
 }
@@ -30,6 +30,7 @@ import org.apache.atlas.typesystem.types.DataTypes;
 import org.codehaus.jettison.json.JSONObject;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Metadata service.
@@ -111,6 +112,26 @@ public interface MetadataService {
      */
     String getEntityDefinition(String guid) throws AtlasException;
 
+    /**
+     * Return the definition for the given guid, with only the given attributes.
+     *
+     * @param guid guid
+     * @param attributeNames names of the attributes to return, null or empty for all attributes
+     * @param excludeComposites if true, composite entities are returned as ids instead of their definitions
+     * @return entity definition as JSON
+     */
+    String getEntityDefinition(String guid, List<String> attributeNames, boolean excludeComposites)
+            throws AtlasException;
+
+    /**
+     * Return the definitions for the given guids, read in one batch.
+     *
+     * @param guids guids
+     * @return entity definitions as JSON by guid, in the order of the given guids. Entities that don't exist are
+     * left out
+     */
+    Map<String, String> getEntityDefinitions(List<String> guids) throws AtlasException;
+
     /**
      * Return the definition given type and attribute. The attribute has to be unique attribute for the type
      * @param entityType - type name
@@ -129,6 +150,20 @@ public interface MetadataService {
      */
     List<String> getEntityList(String entityType) throws AtlasException;
 
+    /**
+     * Return a page of the list of entity guids for the given type in the repository.
+     *
+     * The list is read with a single scan of the type index, which is kept open between the pages. Entities created
+     * or deleted while paging may or may not be listed. The cursor expires when it's not used for some time, and
+     * it is only valid on the server instance that returned it.
+     *
+     * @param entityType type
+     * @param cursor cursor returned with the previous page, or null to get the first page
+     * @param limit maximum number of entities to return
+     * @return page of at most limit entity guids for the given type in the repository
+     */
+    EntityListPage getEntityList(String entityType, String cursor, int limit) throws AtlasException;
+
     /**
      * Adds the property to the given entity id(guid).
      * Currently supports updates only on PRIMITIVE, CLASS attribute types
@@ -157,6 +192,16 @@ public interface MetadataService {
      */
     AtlasClient.EntityResult updateEntities(String entityJson) throws AtlasException;
 
+    /**
+     * Batch API - Adds/Updates the given typed entity instances.
+     *
+     * @param typedInstances  instances to create or update
+     * @return guids of entities created/updated
+     *
+     * @throws AtlasException if unable to update the entities
+     */
+    AtlasClient.EntityResult updateEntities(ITypedReferenceableInstance[] typedInstances) throws AtlasException;
+
     // Trait management functions
 
     /**
@@ -242,6 +287,17 @@ public interface MetadataService {
      */
     void unregisterListener(EntityChangeListener listener);
 
+    /**
+     * Notify the entity change listeners of entities that were added or updated in requests that skipped them, see
+     * {@link org.apache.atlas.RequestContext#setEntityChangeListenersSkipped(boolean)}. The listeners get the current
+     * definitions of the entities.
+     *
+     * @param addedGuids    guids of the entities added
+     * @param updatedGuids  guids of the entities updated
+     * @throws AtlasException
+     */
+    void notifyEntityChangeListeners(List<String> addedGuids, List<String> updatedGuids) throws AtlasException;
+
     /**
      * Delete the specified entity from the repository identified by its unique attribute (including its composite references)
      *
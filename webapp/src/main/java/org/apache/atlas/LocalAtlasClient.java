@@ -19,11 +19,12 @@
 package org.apache.atlas;
 
 import com.google.inject.Inject;
+import org.apache.atlas.services.MetadataService;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.Referenceable;
 import org.apache.atlas.typesystem.TypesDef;
 import org.apache.atlas.typesystem.json.InstanceSerialization;
 import org.apache.atlas.web.filters.AuditFilter;
-import org.apache.atlas.web.resources.EntityResource;
 import org.apache.atlas.web.service.ServiceState;
 import org.apache.atlas.web.util.DateTimeHelper;
 import org.codehaus.jettison.json.JSONArray;
@@ -32,13 +33,16 @@ import org.codehaus.jettison.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.ws.rs.WebApplicationException;
-import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
 /**
- * Local atlas client which calls the resource methods directly. Used by NotificationHookConsumer.
+ * Local atlas client which calls the metadata service directly. Used by NotificationHookConsumer.
+ *
+ * Entities are handed to {@link MetadataService} in their deserialized form, so the hook messages are not
+ * re-serialized to JSON and parsed again on their way into the repository.
  */
 public class LocalAtlasClient extends AtlasClient {
     private static final String LOCALHOST = "localhost";
@@ -46,26 +50,27 @@ public class LocalAtlasClient extends AtlasClient {
 
     public static final Logger LOG = LoggerFactory.getLogger(LocalAtlasClient.class);
 
-    private final EntityResource entityResource;
+    private final MetadataService metadataService;
 
     private final ServiceState serviceState;
 
     @Inject
-    public LocalAtlasClient(ServiceState serviceState, EntityResource entityResource) {
+    public LocalAtlasClient(ServiceState serviceState, MetadataService metadataService) {
         super();
         this.serviceState = serviceState;
-        this.entityResource = entityResource;
+        this.metadataService = metadataService;
     }
 
-    private String user;
+    // Hook messages may be handled concurrently by several consumer threads, each acting for its own user
+    private final ThreadLocal<String> user = new ThreadLocal<>();
 
     public void setUser(String user) {
-        this.user = user;
+        this.user.set(user);
     }
 
     private void setRequestContext() {
         RequestContext requestContext = RequestContext.createContext();
-        requestContext.setUser(user);
+        requestContext.setUser(user.get());
     }
 
     @Override
@@ -74,76 +79,99 @@ public class LocalAtlasClient extends AtlasClient {
     }
 
     @Override
-    protected List<String> createEntity(final JSONArray entities) throws AtlasServiceException {
+    public List<String> createEntity(final Collection<Referenceable> entities) throws AtlasServiceException {
         LOG.debug("Creating entities: {}", entities);
-        EntityOperation entityOperation = new EntityOperation(API.CREATE_ENTITY) {
+        EntityOperation<List<String>> entityOperation = new EntityOperation<List<String>>(API.CREATE_ENTITY) {
             @Override
-            Response invoke() {
-                return entityResource.submit(new LocalServletRequest(entities.toString()));
+            List<String> invoke() throws AtlasException {
+                return metadataService.createEntities(toTypedInstances(entities));
             }
         };
-        JSONObject response = entityOperation.run();
-        EntityResult results = extractEntityResult(response);
+        List<String> results = entityOperation.run();
         LOG.debug("Create entities returned results: {}", results);
-        return results.getCreatedEntities();
+        return results;
+    }
+
+    @Override
+    protected List<String> createEntity(JSONArray entities) throws AtlasServiceException {
+        return createEntity(toReferenceables(entities));
     }
 
     @Override
-    protected EntityResult updateEntities(final JSONArray entities) throws AtlasServiceException {
+    public EntityResult updateEntities(final Collection<Referenceable> entities) throws AtlasServiceException {
         LOG.debug("Updating entities: {}", entities);
-        EntityOperation entityOperation = new EntityOperation(API.UPDATE_ENTITY) {
+        EntityOperation<EntityResult> entityOperation = new EntityOperation<EntityResult>(API.UPDATE_ENTITY) {
             @Override
-            Response invoke() {
-                return entityResource.updateEntities(new LocalServletRequest(entities.toString()));
+            EntityResult invoke() throws AtlasException {
+                return metadataService.updateEntities(toTypedInstances(entities));
             }
         };
-        JSONObject response = entityOperation.run();
-        EntityResult results = extractEntityResult(response);
+        EntityResult results = entityOperation.run();
         LOG.debug("Update entities returned results: {}", results);
         return results;
     }
 
-    private abstract class EntityOperation {
+    @Override
+    protected EntityResult updateEntities(JSONArray entities) throws AtlasServiceException {
+        return updateEntities(toReferenceables(entities));
+    }
+
+    private ITypedReferenceableInstance[] toTypedInstances(Collection<Referenceable> entities)
+            throws AtlasException {
+        ITypedReferenceableInstance[] typedInstances = new ITypedReferenceableInstance[entities.size()];
+        int index = 0;
+        for (Referenceable entity : entities) {
+            typedInstances[index++] = metadataService.getTypedReferenceableInstance(entity);
+        }
+        return typedInstances;
+    }
+
+    private List<Referenceable> toReferenceables(JSONArray entities) throws AtlasServiceException {
+        List<Referenceable> referenceables = new ArrayList<>(entities.length());
+        try {
+            for (int index = 0; index < entities.length(); index++) {
+                referenceables.add(InstanceSerialization.fromJsonReferenceable(entities.getString(index), true));
+            }
+        } catch (JSONException e) {
+            throw new AtlasServiceException(e);
+        }
+        return referenceables;
+    }
+
+    private abstract class EntityOperation<T> {
         private final API api;
 
         public EntityOperation(API api) {
             this.api = api;
         }
 
-        public JSONObject run() throws AtlasServiceException {
+        public T run() throws AtlasServiceException {
             setRequestContext();
-            AuditFilter.audit(user, CLASS, api.getMethod(), LOCALHOST, api.getPath(), LOCALHOST, DateTimeHelper.formatDateUTC(new Date()));
+            AuditFilter.audit(user.get(), CLASS, api.getMethod(), LOCALHOST, api.getPath(), LOCALHOST, DateTimeHelper.formatDateUTC(new Date()));
 
             try {
-                Response response = invoke();
-                return (JSONObject) response.getEntity();
-            } catch(WebApplicationException e) {
-                try {
-                    throw new AtlasServiceException(api, e);
-                } catch (JSONException e1) {
-                    throw new AtlasServiceException(e);
-                }
+                return invoke();
+            } catch (AtlasException | RuntimeException e) {
+                throw new AtlasServiceException(api, e);
             }
         }
 
-        abstract Response invoke();
+        abstract T invoke() throws AtlasException;
     }
 
     @Override
     public EntityResult updateEntity(final String entityType, final String uniqueAttributeName,
-                               final String uniqueAttributeValue, Referenceable entity) throws AtlasServiceException {
-        final String entityJson = InstanceSerialization.toJson(entity, true);
+                               final String uniqueAttributeValue, final Referenceable entity) throws AtlasServiceException {
         LOG.debug("Updating entity type: {}, attributeName: {}, attributeValue: {}, entity: {}", entityType,
-                uniqueAttributeName, uniqueAttributeValue, entityJson);
-        EntityOperation entityOperation = new EntityOperation(API.UPDATE_ENTITY_PARTIAL) {
+                uniqueAttributeName, uniqueAttributeValue, entity);
+        EntityOperation<EntityResult> entityOperation = new EntityOperation<EntityResult>(API.UPDATE_ENTITY_PARTIAL) {
             @Override
-            Response invoke() {
-                return entityResource.updateByUniqueAttribute(entityType, uniqueAttributeName, uniqueAttributeValue,
-                        new LocalServletRequest(entityJson));
+            EntityResult invoke() throws AtlasException {
+                return metadataService.updateEntityByUniqueAttribute(entityType, uniqueAttributeName,
+                        uniqueAttributeValue, entity);
             }
         };
-        JSONObject response = entityOperation.run();
-        EntityResult result = extractEntityResult(response);
+        EntityResult result = entityOperation.run();
         LOG.debug("Update entity returned result: {}", result);
         return result;
     }
@@ -153,14 +181,14 @@ public class LocalAtlasClient extends AtlasClient {
                                      final String uniqueAttributeValue) throws AtlasServiceException {
         LOG.debug("Deleting entity type: {}, attributeName: {}, attributeValue: {}", entityType, uniqueAttributeName,
                 uniqueAttributeValue);
-        EntityOperation entityOperation = new EntityOperation(API.DELETE_ENTITY) {
+        EntityOperation<EntityResult> entityOperation = new EntityOperation<EntityResult>(API.DELETE_ENTITY) {
             @Override
-            Response invoke() {
-                return entityResource.deleteEntities(null, entityType, uniqueAttributeName, uniqueAttributeValue);
+            EntityResult invoke() throws AtlasException {
+                return metadataService.deleteEntityByUniqueAttribute(entityType, uniqueAttributeName,
+                        uniqueAttributeValue);
             }
         };
-        JSONObject response = entityOperation.run();
-        EntityResult results = extractEntityResult(response);
+        EntityResult results = entityOperation.run();
         LOG.debug("Delete entities returned results: {}", results);
         return results;
     }
@@ -23,20 +23,24 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import kafka.consumer.ConsumerTimeoutException;
 import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.LocalAtlasClient;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
 import org.apache.atlas.notification.hook.HookNotification;
 import org.apache.atlas.service.Service;
+import org.apache.atlas.typesystem.Referenceable;
 import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -49,13 +53,20 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     private static final String THREADNAME_PREFIX = NotificationHookConsumer.class.getSimpleName();
 
     public static final String CONSUMER_THREADS_PROPERTY = "atlas.notification.hook.numthreads";
+    public static final String CONSUMER_BATCH_SIZE_PROPERTY = "atlas.notification.hook.batch.size";
+    public static final String CONSUMER_BATCH_TIMEOUT_PROPERTY = "atlas.notification.hook.batch.timeout.ms";
+    public static final String CONSUMER_LANES_PROPERTY = "atlas.notification.hook.lanes";
     public static final int SERVER_READY_WAIT_TIME_MS = 1000;
+    public static final int DEFAULT_BATCH_TIMEOUT_MS = 500;
     private final LocalAtlasClient atlasClient;
 
     private NotificationInterface notificationInterface;
     private ExecutorService executors;
     private Configuration applicationProperties;
     private List<HookConsumer> consumers;
+    private int batchSize = 1;
+    private int batchTimeoutMs = DEFAULT_BATCH_TIMEOUT_MS;
+    private int numLanes = 1;
 
     @Inject
     public NotificationHookConsumer(NotificationInterface notificationInterface, LocalAtlasClient atlasClient) {
@@ -72,6 +83,9 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     void startInternal(Configuration configuration,
                        ExecutorService executorService) {
         this.applicationProperties = configuration;
+        this.batchSize = Math.max(1, configuration.getInt(CONSUMER_BATCH_SIZE_PROPERTY, 1));
+        this.batchTimeoutMs = configuration.getInt(CONSUMER_BATCH_TIMEOUT_PROPERTY, DEFAULT_BATCH_TIMEOUT_MS);
+        this.numLanes = Math.max(1, configuration.getInt(CONSUMER_LANES_PROPERTY, 1));
         if (consumers == null) {
             consumers = new ArrayList<>();
         }
@@ -151,6 +165,56 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         stop();
     }
 
+    /**
+     * Returns the lane a message must be handled in, so that all messages for an entity are handled in order by
+     * the same lane. Every message is keyed on the type name and qualifiedName of its entities; a create or full
+     * update message is only assigned to a lane if all its entities fall into that lane.
+     * Returns -1 for messages that can't be assigned to one lane - type changes, messages whose entities fall into
+     * different lanes, or entities identified by an attribute other than qualifiedName - which are then handled on
+     * their own, after all earlier messages are done.
+     */
+    @VisibleForTesting
+    static int getLane(HookNotification.HookNotificationMessage message, int numLanes) throws Exception {
+        switch (message.getType()) {
+        case ENTITY_CREATE:
+        case ENTITY_FULL_UPDATE:
+            List<Referenceable> entities = ((HookNotification.EntityCreateRequest) message).getEntities();
+            int lane = -1;
+            for (Referenceable entity : entities) {
+                int entityLane = getLane(entity.getTypeName(), AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME,
+                        entity.get(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME), numLanes);
+                if (entityLane < 0 || (lane >= 0 && entityLane != lane)) {
+                    return -1;
+                }
+                lane = entityLane;
+            }
+            return lane;
+
+        case ENTITY_PARTIAL_UPDATE:
+            HookNotification.EntityPartialUpdateRequest partialUpdateRequest =
+                    (HookNotification.EntityPartialUpdateRequest) message;
+            return getLane(partialUpdateRequest.getTypeName(), partialUpdateRequest.getAttribute(),
+                    partialUpdateRequest.getAttributeValue(), numLanes);
+
+        case ENTITY_DELETE:
+            HookNotification.EntityDeleteRequest deleteRequest = (HookNotification.EntityDeleteRequest) message;
+            return getLane(deleteRequest.getTypeName(), deleteRequest.getAttribute(),
+                    deleteRequest.getAttributeValue(), numLanes);
+
+        default:
+            return -1;
+        }
+    }
+
+    private static int getLane(String typeName, String attribute, Object qualifiedName, int numLanes) {
+        if (!AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME.equals(attribute) || qualifiedName == null) {
+            return -1;
+        }
+
+        int hash = 31 * typeName.hashCode() + qualifiedName.toString().hashCode();
+        return (hash & Integer.MAX_VALUE) % numLanes;
+    }
+
     static class Timer {
         public void sleep(int interval) throws InterruptedException {
             Thread.sleep(interval);
@@ -160,9 +224,22 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     class HookConsumer implements Runnable {
         private final NotificationConsumer<HookNotification.HookNotificationMessage> consumer;
         private final AtomicBoolean shouldRun = new AtomicBoolean(false);
+        private final int lanes;
+        private ExecutorService laneExecutor;
 
         public HookConsumer(NotificationConsumer<HookNotification.HookNotificationMessage> consumer) {
+            this(consumer, numLanes);
+        }
+
+        @VisibleForTesting
+        HookConsumer(NotificationConsumer<HookNotification.HookNotificationMessage> consumer, int lanes) {
             this.consumer = consumer;
+            this.lanes = lanes;
+            if (lanes > 1) {
+                laneExecutor = Executors.newFixedThreadPool(lanes,
+                        new ThreadFactoryBuilder().setNameFormat(THREADNAME_PREFIX + " lane-%d").setDaemon(true)
+                                .build());
+            }
         }
 
         private boolean hasNext() {
@@ -178,22 +255,185 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             shouldRun.set(true);
 
             if (!serverAvailable(new NotificationHookConsumer.Timer())) {
+                shutdownLanes();
                 return;
             }
 
             while (shouldRun.get()) {
                 try {
-                    if (hasNext()) {
+                    if (batchSize > 1 || laneExecutor != null) {
+                        List<HookNotification.HookNotificationMessage> messages = nextBatch();
+                        if (!messages.isEmpty()) {
+                            handleMessages(messages);
+                        }
+                    } else if (hasNext()) {
                         handleMessage(consumer.next());
                     }
                 } catch (Throwable t) {
                     LOG.warn("Failure in NotificationHookConsumer", t);
                 }
             }
+            shutdownLanes();
+        }
+
+        /**
+         * Drains up to batchSize messages from the consumer, waiting no longer than batchTimeoutMs once the
+         * first message is read. The wait for the first message of a batch is bounded by the Kafka consumer's
+         * own timeout (atlas.kafka.consumer.timeout.ms).
+         */
+        private List<HookNotification.HookNotificationMessage> nextBatch() {
+            List<HookNotification.HookNotificationMessage> messages = new ArrayList<>(batchSize);
+            long deadline = -1;
+            while (shouldRun.get() && messages.size() < batchSize && hasNext()) {
+                try {
+                    messages.add(consumer.next());
+                } catch (Exception e) {
+                    LOG.warn("Failure in reading hook message, skipping it", e);
+                }
+
+                if (deadline < 0) {
+                    deadline = System.currentTimeMillis() + batchTimeoutMs;
+                } else if (System.currentTimeMillis() >= deadline) {
+                    break;
+                }
+            }
+            return messages;
         }
 
         @VisibleForTesting
         void handleMessage(HookNotification.HookNotificationMessage message) {
+            processMessage(message);
+            consumer.commit();
+        }
+
+        /**
+         * Processes the given messages and commits the consumer offset once all of them are done. With more than
+         * one lane, the messages are spread over the lanes by entity, see {@link #getLane}.
+         */
+        @VisibleForTesting
+        void handleMessages(List<HookNotification.HookNotificationMessage> messages) throws InterruptedException {
+            if (laneExecutor == null) {
+                processMessages(messages);
+            } else {
+                dispatchToLanes(messages);
+            }
+            consumer.commit();
+        }
+
+        private void dispatchToLanes(List<HookNotification.HookNotificationMessage> messages)
+            throws InterruptedException {
+            List<List<HookNotification.HookNotificationMessage>> laneMessages = new ArrayList<>(lanes);
+            for (int i = 0; i < lanes; i++) {
+                laneMessages.add(new ArrayList<HookNotification.HookNotificationMessage>());
+            }
+
+            for (HookNotification.HookNotificationMessage message : messages) {
+                int lane;
+                try {
+                    lane = getLane(message, lanes);
+                } catch (Exception e) {
+                    lane = -1;
+                }
+
+                if (lane < 0) {
+                    runLanes(laneMessages);
+                    processMessage(message);
+                } else {
+                    laneMessages.get(lane).add(message);
+                }
+            }
+            runLanes(laneMessages);
+        }
+
+        private void runLanes(List<List<HookNotification.HookNotificationMessage>> laneMessages)
+            throws InterruptedException {
+            List<Future<?>> futures = new ArrayList<>();
+            for (final List<HookNotification.HookNotificationMessage> messages : laneMessages) {
+                if (!messages.isEmpty()) {
+                    final List<HookNotification.HookNotificationMessage> copy = new ArrayList<>(messages);
+                    futures.add(laneExecutor.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            processMessages(copy);
+                        }
+                    }));
+                    messages.clear();
+                }
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    LOG.warn("Failure in NotificationHookConsumer lane", e.getCause());
+                }
+            }
+        }
+
+        @VisibleForTesting
+        void shutdownLanes() {
+            if (laneExecutor != null) {
+                laneExecutor.shutdownNow();
+            }
+        }
+
+        /**
+         * Processes the given messages in order.
+         *
+         * Consecutive create (or full update) messages from the same user are applied through a single
+         * repository call, so they are written in one graph transaction. If that fails, the messages of the
+         * run are replayed one at a time so that a single bad message doesn't drop the others.
+         */
+        private void processMessages(List<HookNotification.HookNotificationMessage> messages) {
+            int start = 0;
+            while (start < messages.size()) {
+                int end = getBatchEnd(messages, start);
+                if (end - start > 1) {
+                    applyBatch(messages.subList(start, end));
+                } else {
+                    processMessage(messages.get(start));
+                }
+                start = end;
+            }
+        }
+
+        private int getBatchEnd(List<HookNotification.HookNotificationMessage> messages, int start) {
+            HookNotification.HookNotificationMessage first = messages.get(start);
+            int end = start + 1;
+            if (first.getType() == HookNotification.HookNotificationType.ENTITY_CREATE
+                    || first.getType() == HookNotification.HookNotificationType.ENTITY_FULL_UPDATE) {
+                while (end < messages.size() && messages.get(end).getType() == first.getType()
+                        && messages.get(end).getUser().equals(first.getUser())) {
+                    end++;
+                }
+            }
+            return end;
+        }
+
+        private void applyBatch(List<HookNotification.HookNotificationMessage> messages) {
+            HookNotification.HookNotificationMessage first = messages.get(0);
+            atlasClient.setUser(first.getUser());
+            try {
+                List<Referenceable> entities = new ArrayList<>();
+                for (HookNotification.HookNotificationMessage message : messages) {
+                    entities.addAll(((HookNotification.EntityCreateRequest) message).getEntities());
+                }
+
+                if (first.getType() == HookNotification.HookNotificationType.ENTITY_CREATE) {
+                    atlasClient.createEntity(entities);
+                } else {
+                    atlasClient.updateEntities(entities);
+                }
+            } catch (Exception e) {
+                LOG.warn("Error handling batch of {} {} messages, replaying them one at a time", messages.size(),
+                        first.getType(), e);
+                for (HookNotification.HookNotificationMessage message : messages) {
+                    processMessage(message);
+                }
+            }
+        }
+
+        private void processMessage(HookNotification.HookNotificationMessage message) {
             atlasClient.setUser(message.getUser());
             try {
                 switch (message.getType()) {
@@ -232,7 +472,6 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                 //todo handle failures
                 LOG.warn("Error handling message {}", message, e);
             }
-            consumer.commit();
         }
 
         boolean serverAvailable(Timer timer) {
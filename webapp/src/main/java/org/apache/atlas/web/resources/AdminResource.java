@@ -20,6 +20,7 @@ package org.apache.atlas.web.resources;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Singleton;
@@ -31,6 +32,9 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import org.apache.atlas.AtlasClient;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.discovery.graph.CompiledQueryCache;
+import org.apache.atlas.services.EntityDefinitionCache;
 import org.apache.atlas.web.service.ServiceState;
 import org.apache.atlas.web.util.Servlets;
 import org.apache.commons.configuration.ConfigurationException;
@@ -53,10 +57,15 @@ public class AdminResource {
 
     private Response version;
     private ServiceState serviceState;
+    private EntityDefinitionCache entityDefinitionCache;
+    private CompiledQueryCache compiledQueryCache;
 
     @Inject
-    public AdminResource(ServiceState serviceState) {
+    public AdminResource(ServiceState serviceState, EntityDefinitionCache entityDefinitionCache,
+                         CompiledQueryCache compiledQueryCache) {
         this.serviceState = serviceState;
+        this.entityDefinitionCache = entityDefinitionCache;
+        this.compiledQueryCache = compiledQueryCache;
     }
 
     /**
@@ -130,6 +139,35 @@ public class AdminResource {
         }
     }
     
+    /**
+     * Fetches the graph transaction contention metrics: the number of transient failures, of retries, and of
+     * transactions that failed after all retries, and the entity definition and compiled DSL query cache metrics.
+     *
+     * @return json representing the metrics.
+     */
+    @GET
+    @Path("metrics")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response getMetrics() {
+        JSONObject responseData = new JSONObject();
+        try {
+            responseData.put("graphTransactions", toJson(GraphTransactionInterceptor.getMetrics()));
+            responseData.put("entityDefinitionCache", toJson(entityDefinitionCache.getMetrics()));
+            responseData.put("compiledQueryCache", toJson(compiledQueryCache.getMetrics()));
+            return Response.ok(responseData).build();
+        } catch (JSONException e) {
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        }
+    }
+
+    private static JSONObject toJson(Map<String, Long> metrics) throws JSONException {
+        JSONObject json = new JSONObject();
+        for (Map.Entry<String, Long> metric : metrics.entrySet()) {
+            json.put(metric.getKey(), metric.getValue());
+        }
+        return json;
+    }
+
     @GET
     @Path("session")
     @Produces(Servlets.JSON_MEDIA_TYPE)
@@ -20,10 +20,13 @@ package org.apache.atlas.web.resources;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasClient;
 import org.apache.atlas.AtlasConstants;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.EntityAuditEvent;
+import org.apache.atlas.services.BulkEntityImporter;
+import org.apache.atlas.services.EntityListPage;
 import org.apache.atlas.services.MetadataService;
 import org.apache.atlas.typesystem.Referenceable;
 import org.apache.atlas.typesystem.exception.EntityExistsException;
@@ -59,12 +62,20 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -80,7 +91,11 @@ public class EntityResource {
     private static final Logger LOG = LoggerFactory.getLogger(EntityResource.class);
     private static final String TRAIT_NAME = "traitName";
 
+    public static final String LIST_MAX_SIZE_PROPERTY = "atlas.entities.list.max.size";
+    public static final int DEFAULT_LIST_MAX_SIZE = 10000;
+
     private final MetadataService metadataService;
+    private final int listMaxSize;
 
     @Context
     UriInfo uriInfo;
@@ -94,6 +109,16 @@ public class EntityResource {
     @Inject
     public EntityResource(MetadataService metadataService) {
         this.metadataService = metadataService;
+        this.listMaxSize = getListMaxSize();
+    }
+
+    private static int getListMaxSize() {
+        try {
+            return Math.max(1, ApplicationProperties.get().getInt(LIST_MAX_SIZE_PROPERTY, DEFAULT_LIST_MAX_SIZE));
+        } catch (AtlasException e) {
+            LOG.warn("Failed to read {}, using default {}", LIST_MAX_SIZE_PROPERTY, DEFAULT_LIST_MAX_SIZE, e);
+            return DEFAULT_LIST_MAX_SIZE;
+        }
     }
 
     /**
@@ -146,6 +171,128 @@ public class EntityResource {
     }
 
 
+    /**
+     * Imports entities in bulk.
+     * The body contains one entity json per line. The entities are created or updated in chunks, each committed
+     * separately, and the response streams one json object per chunk with the progress of the import and the
+     * entities of the chunk that failed. With skipNotifications, audit events and entity notifications are not sent
+     * for each chunk, but for all the imported entities at the end of the import, before the response ends.
+     */
+    @POST
+    @Path("bulk")
+    @Consumes({MediaType.TEXT_PLAIN, Servlets.JSON_MEDIA_TYPE, MediaType.APPLICATION_JSON})
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response importEntities(@Context final HttpServletRequest request,
+                                   @DefaultValue("1000") @QueryParam("chunkSize") int chunkSize,
+                                   @DefaultValue("false") @QueryParam("deferFullText") boolean deferFullText,
+                                   @DefaultValue("false") @QueryParam("skipNotifications") boolean skipNotifications) {
+        LOG.info("Importing entities in chunks of {}, deferFullText={}, skipNotifications={}", chunkSize,
+                deferFullText, skipNotifications);
+        final String requestId = Servlets.getRequestId();
+        final BulkEntityImporter importer =
+                new BulkEntityImporter(metadataService, chunkSize, deferFullText, skipNotifications);
+
+        StreamingOutput output = new StreamingOutput() {
+            @Override
+            public void write(OutputStream out) throws IOException {
+                final Writer writer = new OutputStreamWriter(out, "UTF-8");
+                Reader reader = new InputStreamReader(request.getInputStream(), "UTF-8");
+
+                importer.importEntities(reader, new BulkEntityImporter.ProgressListener() {
+                    private int reportedFailures = 0;
+
+                    @Override
+                    public void onChunkImported(BulkEntityImporter.Progress progress) throws IOException {
+                        try {
+                            JSONObject response = new JSONObject();
+                            response.put(AtlasClient.REQUEST_ID, requestId);
+                            response.put("processed", progress.getProcessed());
+                            response.put("created", progress.getCreated());
+                            response.put("updated", progress.getUpdated());
+
+                            //Report only the failures since the last chunk
+                            JSONArray failures = new JSONArray();
+                            int index = 0;
+                            for (Map.Entry<Integer, String> failure : progress.getFailures().entrySet()) {
+                                if (index++ >= reportedFailures) {
+                                    failures.put(new JSONObject().put("line", failure.getKey())
+                                            .put(AtlasClient.ERROR, failure.getValue()));
+                                }
+                            }
+                            reportedFailures = index;
+                            response.put("failures", failures);
+
+                            writer.write(response.toString());
+                            writer.write('\n');
+                            writer.flush();
+                        } catch (JSONException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                });
+                writer.flush();
+            }
+        };
+        return Response.ok(output).build();
+    }
+
+    /**
+     * Fetch the complete definitions of several entities given their GUIDs.
+     * The body contains the JSONArray of GUIDs, so that hundreds of GUIDs don't exceed the URL length limits. The
+     * entities are read in one transaction and the definitions are streamed to the response, with the GUIDs of the
+     * entities that don't exist.
+     */
+    @POST
+    @Path("bulk/read")
+    @Consumes({Servlets.JSON_MEDIA_TYPE, MediaType.APPLICATION_JSON})
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Response getEntityDefinitions(@Context HttpServletRequest request) {
+        try {
+            JSONArray guidsJson = new JSONArray(Servlets.getRequestPayload(request));
+            final List<String> guids = new ArrayList<>();
+            for (int index = 0; index < guidsJson.length(); index++) {
+                guids.add(guidsJson.getString(index));
+            }
+            LOG.debug("Fetching entity definitions for {} guids", guids.size());
+
+            final Map<String, String> definitions = metadataService.getEntityDefinitions(guids);
+            final String requestId = Servlets.getRequestId();
+
+            StreamingOutput output = new StreamingOutput() {
+                @Override
+                public void write(OutputStream out) throws IOException {
+                    Writer writer = new OutputStreamWriter(out, "UTF-8");
+                    writer.write("{\"" + AtlasClient.REQUEST_ID + "\":" + JSONObject.quote(requestId));
+                    writer.write(",\"definitions\":[");
+                    boolean first = true;
+                    for (String definition : definitions.values()) {
+                        if (!first) {
+                            writer.write(',');
+                        }
+                        writer.write(definition);
+                        first = false;
+                    }
+
+                    JSONArray notFound = new JSONArray();
+                    for (String guid : guids) {
+                        if (!definitions.containsKey(guid)) {
+                            notFound.put(guid);
+                        }
+                    }
+                    writer.write("],\"notFound\":" + notFound.toString() + "}");
+                    writer.flush();
+                }
+            };
+            return Response.ok(output).build();
+        } catch (AtlasException | IllegalArgumentException | JSONException e) {
+            LOG.error("Unable to get entity definitions", e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.BAD_REQUEST));
+        } catch (Throwable e) {
+            LOG.error("Unable to get entity definitions", e);
+            throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.INTERNAL_SERVER_ERROR));
+        }
+    }
+
     @VisibleForTesting
     public URI getLocationURI(List<String> guids) {
         URI locationURI = null;
@@ -404,18 +551,24 @@ public class EntityResource {
     }
 
     /**
-     * Fetch the complete definition of an entity given its GUID.
+     * Fetch the definition of an entity given its GUID.
      *
      * @param guid GUID for the entity
+     * @param attributes names of the attributes to fetch, comma separated or repeated. All attributes by default
+     * @param excludeComposites if true, composite entities are returned as ids instead of their definitions
      */
     @GET
     @Path("{guid}")
     @Produces(Servlets.JSON_MEDIA_TYPE)
-    public Response getEntityDefinition(@PathParam("guid") String guid) {
+    public Response getEntityDefinition(@PathParam("guid") String guid,
+                                        @QueryParam("attributes") List<String> attributes,
+                                        @DefaultValue("false") @QueryParam("excludeComposites")
+                                        boolean excludeComposites) {
         try {
             LOG.debug("Fetching entity definition for guid={} ", guid);
             ParamChecker.notEmpty(guid, "guid cannot be null");
-            final String entityDefinition = metadataService.getEntityDefinition(guid);
+            final String entityDefinition =
+                    metadataService.getEntityDefinition(guid, splitAttributeNames(attributes), excludeComposites);
 
             JSONObject response = new JSONObject();
             response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
@@ -443,25 +596,85 @@ public class EntityResource {
         }
     }
 
+    private static List<String> splitAttributeNames(List<String> attributes) {
+        List<String> attributeNames = new ArrayList<>();
+        if (attributes != null) {
+            for (String attribute : attributes) {
+                for (String attributeName : StringUtils.split(attribute, ',')) {
+                    if (StringUtils.isNotBlank(attributeName)) {
+                        attributeNames.add(attributeName.trim());
+                    }
+                }
+            }
+        }
+        return attributeNames;
+    }
+
     /**
      * Gets the list of entities for a given entity type.
      *
      * @param entityType name of a type which is unique
      */
     public Response getEntityListByType(String entityType) {
+        return getEntityListByType(entityType, null, null);
+    }
+
+    /**
+     * Gets a page of the list of entities for a given entity type. The response contains a cursor to pass to get the
+     * next page, unless it is the last page. Pages hold at most the configured maximum number of entities. A request
+     * without a cursor and a limit gets the whole list.
+     *
+     * The pages are read with a single scan of the type index that is kept open on this server instance, see
+     * {@link MetadataService#getEntityList(String, String, int)}.
+     *
+     * @param entityType name of a type which is unique
+     * @param cursor cursor returned with the previous page, null for the first page
+     * @param limit maximum number of entities in the page, null for the configured maximum
+     */
+    public Response getEntityListByType(final String entityType, String cursor, Integer limit) {
         try {
             Preconditions.checkNotNull(entityType, "Entity type cannot be null");
 
-            LOG.debug("Fetching entity list for type={} ", entityType);
-            final List<String> entityList = metadataService.getEntityList(entityType);
-
-            JSONObject response = new JSONObject();
-            response.put(AtlasClient.REQUEST_ID, Servlets.getRequestId());
-            response.put(AtlasClient.TYPENAME, entityType);
-            response.put(AtlasClient.RESULTS, new JSONArray(entityList));
-            response.put(AtlasClient.COUNT, entityList.size());
+            LOG.debug("Fetching entity list for type={}, cursor={}, limit={}", entityType, cursor, limit);
+            final List<String> entityList;
+            String nextCursor = null;
+            if (cursor == null && limit == null) {
+                entityList = metadataService.getEntityList(entityType);
+            } else {
+                int pageSize = limit == null ? listMaxSize : Math.min(limit, listMaxSize);
+                if (pageSize <= 0) {
+                    throw new IllegalArgumentException("limit must be positive");
+                }
+
+                EntityListPage page = metadataService.getEntityList(entityType, cursor, pageSize);
+                entityList = page.getGuids();
+                nextCursor = page.getNextCursor();
+            }
 
-            return Response.ok(response).build();
+            final String requestId = Servlets.getRequestId();
+            final String finalNextCursor = nextCursor;
+            StreamingOutput output = new StreamingOutput() {
+                @Override
+                public void write(OutputStream out) throws IOException {
+                    Writer writer = new OutputStreamWriter(out, "UTF-8");
+                    writer.write("{\"" + AtlasClient.REQUEST_ID + "\":" + JSONObject.quote(requestId));
+                    writer.write(",\"" + AtlasClient.TYPENAME + "\":" + JSONObject.quote(entityType));
+                    writer.write(",\"" + AtlasClient.RESULTS + "\":[");
+                    for (int index = 0; index < entityList.size(); index++) {
+                        if (index > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(JSONObject.quote(entityList.get(index)));
+                    }
+                    writer.write("],\"" + AtlasClient.COUNT + "\":" + entityList.size());
+                    if (finalNextCursor != null) {
+                        writer.write(",\"" + AtlasClient.CURSOR + "\":" + JSONObject.quote(finalNextCursor));
+                    }
+                    writer.write("}");
+                    writer.flush();
+                }
+            };
+            return Response.ok(output).build();
         } catch (NullPointerException e) {
             LOG.error("Entity type cannot be null", e);
             throw new WebApplicationException(Servlets.getErrorResponse(e, Response.Status.BAD_REQUEST));
@@ -479,10 +692,12 @@ public class EntityResource {
     @Produces(Servlets.JSON_MEDIA_TYPE)
     public Response getEntity(@QueryParam("type") String entityType,
                               @QueryParam("property") String attribute,
-                              @QueryParam("value") String value) {
+                              @QueryParam("value") String value,
+                              @QueryParam("cursor") String cursor,
+                              @QueryParam("limit") Integer limit) {
         if (StringUtils.isEmpty(attribute)) {
             //List API
-            return getEntityListByType(entityType);
+            return getEntityListByType(entityType, cursor, limit);
         } else {
             //Get entity by unique attribute
             return getEntityDefinitionByAttribute(entityType, attribute, value);
@@ -20,12 +20,15 @@ package org.apache.atlas.web.service;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.multibindings.Multibinder;
+import org.apache.atlas.discovery.graph.CompiledQueryCache;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
 import org.apache.atlas.notification.NotificationHookConsumer;
 import org.apache.atlas.repository.audit.HBaseBasedAuditRepository;
+import org.apache.atlas.repository.graph.AsyncFullTextIndexer;
 import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
 import org.apache.atlas.service.Service;
 import org.apache.atlas.services.DefaultMetadataService;
+import org.apache.atlas.services.EntityDefinitionCache;
 
 /**
  * A Guice module that registers the handlers of High Availability state change handlers and other services.
@@ -41,6 +44,9 @@ public class ActiveInstanceElectorModule extends AbstractModule {
         activeStateChangeHandlerBinder.addBinding().to(DefaultMetadataService.class);
         activeStateChangeHandlerBinder.addBinding().to(NotificationHookConsumer.class);
         activeStateChangeHandlerBinder.addBinding().to(HBaseBasedAuditRepository.class);
+        activeStateChangeHandlerBinder.addBinding().to(AsyncFullTextIndexer.class);
+        activeStateChangeHandlerBinder.addBinding().to(EntityDefinitionCache.class);
+        activeStateChangeHandlerBinder.addBinding().to(CompiledQueryCache.class);
 
         Multibinder<Service> serviceBinder = Multibinder.newSetBinder(binder(), Service.class);
         serviceBinder.addBinding().to(ActiveInstanceElectorService.class);
@@ -19,7 +19,6 @@
 package org.apache.atlas.web.util;
 
 import org.apache.atlas.AtlasClient;
-import org.apache.atlas.LocalServletRequest;
 import org.apache.atlas.utils.ParamChecker;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringEscapeUtils;
@@ -161,11 +160,6 @@ public final class Servlets {
     }
 
     public static String getRequestPayload(HttpServletRequest request) throws IOException {
-        //request is an instance of LocalServletRequest for calls from LocalAtlasClient
-        if (request instanceof LocalServletRequest) {
-            return ((LocalServletRequest) request).getPayload();
-        }
-
         StringWriter writer = new StringWriter();
         IOUtils.copy(request.getInputStream(), writer);
         return writer.toString();
@@ -19,29 +19,25 @@
 package org.apache.atlas;
 
 import com.google.inject.Inject;
-import com.sun.jersey.api.client.ClientResponse;
+import org.apache.atlas.services.MetadataService;
+import org.apache.atlas.typesystem.ITypedReferenceableInstance;
 import org.apache.atlas.typesystem.Referenceable;
+import org.apache.atlas.typesystem.exception.EntityNotFoundException;
 import org.apache.atlas.web.resources.EntityResource;
 import org.apache.atlas.web.service.ServiceState;
 import org.apache.commons.lang.RandomStringUtils;
-import org.codehaus.jettison.json.JSONObject;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Guice;
 import org.testng.annotations.Test;
 
-import javax.servlet.http.HttpServletRequest;
-import javax.ws.rs.WebApplicationException;
-import javax.ws.rs.core.Response;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import static org.apache.atlas.AtlasClient.ENTITIES;
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -53,7 +49,7 @@ import static org.testng.Assert.fail;
 @Guice(modules= RepositoryMetadataModule.class)
 public class LocalAtlasClientTest {
     @Mock
-    private EntityResource mockEntityResource;
+    private MetadataService metadataService;
 
     @Inject
     private EntityResource entityResource;
@@ -68,15 +64,12 @@ public class LocalAtlasClientTest {
 
     @Test
     public void testCreateEntity() throws Exception {
-        Response response = mock(Response.class);
-        when(mockEntityResource.submit(any(HttpServletRequest.class))).thenReturn(response);
         final String guid = random();
-        when(response.getEntity()).thenReturn(new JSONObject() {{
-            put(ENTITIES, new JSONObject(
-                    new AtlasClient.EntityResult(Arrays.asList(guid), null, null).toString()).get(ENTITIES));
-        }});
+        when(metadataService.getTypedReferenceableInstance(any(Referenceable.class)))
+                .thenReturn(mock(ITypedReferenceableInstance.class));
+        when(metadataService.createEntities(any(ITypedReferenceableInstance[].class))).thenReturn(Arrays.asList(guid));
 
-        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, mockEntityResource);
+        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, metadataService);
         List<String> results = atlasClient.createEntity(new Referenceable(random()));
         assertEquals(results.size(), 1);
         assertEquals(results.get(0), guid);
@@ -84,29 +77,24 @@ public class LocalAtlasClientTest {
 
     @Test
     public void testException() throws Exception {
-        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, mockEntityResource);
-
-        Response response = mock(Response.class);
-        when(mockEntityResource.submit(any(HttpServletRequest.class))).thenThrow(new WebApplicationException(response));
-        when(response.getEntity()).thenReturn(new JSONObject() {{
-            put("stackTrace", "stackTrace");
-        }});
-        when(response.getStatus()).thenReturn(Response.Status.BAD_REQUEST.getStatusCode());
+        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, metadataService);
+
+        when(metadataService.getTypedReferenceableInstance(any(Referenceable.class)))
+                .thenThrow(new IllegalArgumentException("Simulating bad entity"));
         try {
             atlasClient.createEntity(new Referenceable(random()));
             fail("Expected AtlasServiceException");
         } catch(AtlasServiceException e) {
-            assertEquals(e.getStatus(), ClientResponse.Status.BAD_REQUEST);
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
         }
 
-        when(mockEntityResource.updateByUniqueAttribute(anyString(), anyString(), anyString(),
-                any(HttpServletRequest.class))).thenThrow(new WebApplicationException(response));
-        when(response.getStatus()).thenReturn(Response.Status.NOT_FOUND.getStatusCode());
+        when(metadataService.updateEntityByUniqueAttribute(anyString(), anyString(), anyString(),
+                any(Referenceable.class))).thenThrow(new EntityNotFoundException("Simulating missing entity"));
         try {
             atlasClient.updateEntity(random(), random(), random(), new Referenceable(random()));
             fail("Expected AtlasServiceException");
         } catch(AtlasServiceException e) {
-            assertEquals(e.getStatus(), ClientResponse.Status.NOT_FOUND);
+            assertTrue(e.getCause() instanceof EntityNotFoundException);
         }
 
     }
@@ -114,25 +102,33 @@ public class LocalAtlasClientTest {
     @Test
     public void testIsServerReady() throws Exception {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.ACTIVE);
-        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, mockEntityResource);
+        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, metadataService);
         assertTrue(atlasClient.isServerReady());
 
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.BECOMING_ACTIVE);
         assertFalse(atlasClient.isServerReady());
     }
 
+    @Test
+    public void testUpdateEntities() throws Exception {
+        final String guid = random();
+        when(metadataService.getTypedReferenceableInstance(any(Referenceable.class)))
+                .thenReturn(mock(ITypedReferenceableInstance.class));
+        when(metadataService.updateEntities(any(ITypedReferenceableInstance[].class)))
+                .thenReturn(new AtlasClient.EntityResult(null, Arrays.asList(guid), null));
+
+        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, metadataService);
+        AtlasClient.EntityResult entityResult = atlasClient.updateEntities(new Referenceable(random()));
+        assertEquals(entityResult.getUpdateEntities(), Arrays.asList(guid));
+    }
+
     @Test
     public void testUpdateEntity() throws Exception {
         final String guid = random();
-        Response response = mock(Response.class);
-        when(mockEntityResource.updateByUniqueAttribute(anyString(), anyString(), anyString(),
-                any(HttpServletRequest.class))).thenReturn(response);
-        when(response.getEntity()).thenReturn(new JSONObject() {{
-            put(ENTITIES, new JSONObject(
-                    new AtlasClient.EntityResult(null, Arrays.asList(guid), null).toString()).get(ENTITIES));
-        }});
-
-        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, mockEntityResource);
+        when(metadataService.updateEntityByUniqueAttribute(anyString(), anyString(), anyString(),
+                any(Referenceable.class))).thenReturn(new AtlasClient.EntityResult(null, Arrays.asList(guid), null));
+
+        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, metadataService);
         AtlasClient.EntityResult
                 entityResult = atlasClient.updateEntity(random(), random(), random(), new Referenceable(random()));
         assertEquals(entityResult.getUpdateEntities(), Arrays.asList(guid));
@@ -141,14 +137,10 @@ public class LocalAtlasClientTest {
     @Test
     public void testDeleteEntity() throws Exception {
         final String guid = random();
-        Response response = mock(Response.class);
-        when(response.getEntity()).thenReturn(new JSONObject() {{
-            put(ENTITIES, new JSONObject(
-                    new AtlasClient.EntityResult(null, null, Arrays.asList(guid)).toString()).get(ENTITIES));
-        }});
-
-        when(mockEntityResource.deleteEntities(anyListOf(String.class), anyString(), anyString(), anyString())).thenReturn(response);
-        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, mockEntityResource);
+        when(metadataService.deleteEntityByUniqueAttribute(anyString(), anyString(), anyString()))
+                .thenReturn(new AtlasClient.EntityResult(null, null, Arrays.asList(guid)));
+
+        LocalAtlasClient atlasClient = new LocalAtlasClient(serviceState, metadataService);
         AtlasClient.EntityResult entityResult = atlasClient.deleteEntity(random(), random(), random());
         assertEquals(entityResult.getDeletedEntities(), Arrays.asList(guid));
     }
@@ -22,24 +22,29 @@ import org.apache.atlas.AtlasServiceException;
 import org.apache.atlas.LocalAtlasClient;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.notification.hook.HookNotification;
+import org.apache.atlas.typesystem.Referenceable;
 import org.apache.commons.configuration.Configuration;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertTrue;
 
@@ -57,11 +62,21 @@ public class NotificationHookConsumerTest {
     @Mock
     private ExecutorService executorService;
 
+    private NotificationHookConsumer.HookConsumer laneConsumer;
+
     @BeforeMethod
     public void setup() {
         MockitoAnnotations.initMocks(this);
     }
 
+    @AfterMethod
+    public void tearDown() {
+        if (laneConsumer != null) {
+            laneConsumer.shutdownLanes();
+            laneConsumer = null;
+        }
+    }
+
     @Test
     public void testConsumerCanProceedIfServerIsReady() throws InterruptedException, AtlasServiceException {
         NotificationHookConsumer notificationHookConsumer = new NotificationHookConsumer(notificationInterface, atlasClient);
@@ -122,6 +137,110 @@ public class NotificationHookConsumerTest {
         verify(consumer).commit();
     }
 
+    @Test
+    public void testConsecutiveCreatesAreAppliedInOneCall() throws Exception {
+        NotificationHookConsumer notificationHookConsumer =
+                new NotificationHookConsumer(notificationInterface, atlasClient);
+        NotificationConsumer consumer = mock(NotificationConsumer.class);
+        NotificationHookConsumer.HookConsumer hookConsumer =
+                notificationHookConsumer.new HookConsumer(consumer);
+        List<HookNotification.HookNotificationMessage> messages = new ArrayList<>();
+        messages.add(createRequest("user"));
+        messages.add(createRequest("user"));
+        messages.add(createRequest("other"));
+
+        hookConsumer.handleMessages(messages);
+
+        verify(atlasClient, times(2)).createEntity(any(List.class));
+        verify(consumer).commit();
+    }
+
+    @Test
+    public void testFailedBatchIsReplayedPerMessage() throws Exception {
+        NotificationHookConsumer notificationHookConsumer =
+                new NotificationHookConsumer(notificationInterface, atlasClient);
+        NotificationConsumer consumer = mock(NotificationConsumer.class);
+        NotificationHookConsumer.HookConsumer hookConsumer =
+                notificationHookConsumer.new HookConsumer(consumer);
+        List<HookNotification.HookNotificationMessage> messages = new ArrayList<>();
+        messages.add(createRequest("user"));
+        messages.add(createRequest("user"));
+        when(atlasClient.createEntity(any(List.class))).
+                thenThrow(new RuntimeException("Simulating exception in processing batch"));
+
+        hookConsumer.handleMessages(messages);
+
+        verify(atlasClient, times(3)).createEntity(any(List.class));
+        verify(consumer).commit();
+    }
+
+    @Test
+    public void testMessagesForSameEntityUseSameLane() throws Exception {
+        HookNotification.HookNotificationMessage create = new HookNotification.EntityCreateRequest("user",
+                new Referenceable("hive_table", new HashMap<String, Object>() {{
+                    put(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "default.t1@cl1");
+                }}));
+        HookNotification.HookNotificationMessage partialUpdate = new HookNotification.EntityPartialUpdateRequest(
+                "user", "hive_table", AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "default.t1@cl1",
+                new Referenceable("hive_table"));
+        HookNotification.HookNotificationMessage delete = new HookNotification.EntityDeleteRequest("user",
+                "hive_table", AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "default.t1@cl1");
+
+        int lane = NotificationHookConsumer.getLane(create, 8);
+        assertTrue(lane >= 0 && lane < 8);
+        assertEquals(NotificationHookConsumer.getLane(partialUpdate, 8), lane);
+        assertEquals(NotificationHookConsumer.getLane(delete, 8), lane);
+    }
+
+    @Test
+    public void testMessageWithEntitiesInDifferentLanesIsHandledAlone() throws Exception {
+        Referenceable db = new Referenceable("hive_db", new HashMap<String, Object>() {{
+            put(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "default@cl1");
+        }});
+        Referenceable table = new Referenceable("hive_table", new HashMap<String, Object>() {{
+            put(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "default.t1@cl1");
+        }});
+        HookNotification.HookNotificationMessage delete = new HookNotification.EntityDeleteRequest("user",
+                "hive_table", AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "default.t1@cl1");
+
+        //The db and the table fall into different lanes out of 8
+        assertEquals(NotificationHookConsumer.getLane(new HookNotification.EntityCreateRequest("user", db, table), 8),
+                -1);
+        assertEquals(NotificationHookConsumer.getLane(new HookNotification.EntityCreateRequest("user", table), 8),
+                NotificationHookConsumer.getLane(delete, 8));
+        assertEquals(NotificationHookConsumer.getLane(new HookNotification.EntityCreateRequest("user", db, table), 1),
+                0);
+        assertEquals(NotificationHookConsumer.getLane(new HookNotification.EntityDeleteRequest("user",
+                "hive_table", AtlasClient.NAME, "t1"), 8), -1);
+    }
+
+    @Test
+    public void testMessagesAreHandledInLanes() throws Exception {
+        NotificationHookConsumer notificationHookConsumer =
+                new NotificationHookConsumer(notificationInterface, atlasClient);
+        NotificationConsumer consumer = mock(NotificationConsumer.class);
+        laneConsumer = notificationHookConsumer.new HookConsumer(consumer, 4);
+        List<HookNotification.HookNotificationMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            messages.add(new HookNotification.EntityDeleteRequest("user", "hive_table",
+                    AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME, "default.t" + i + "@cl1"));
+        }
+
+        laneConsumer.handleMessages(messages);
+
+        verify(atlasClient, times(10)).deleteEntity(eq("hive_table"), eq(AtlasClient.REFERENCEABLE_ATTRIBUTE_NAME),
+                any(String.class));
+        verify(consumer).commit();
+    }
+
+    private HookNotification.EntityCreateRequest createRequest(String user) throws Exception {
+        HookNotification.EntityCreateRequest message = mock(HookNotification.EntityCreateRequest.class);
+        when(message.getUser()).thenReturn(user);
+        when(message.getType()).thenReturn(HookNotification.HookNotificationType.ENTITY_CREATE);
+        when(message.getEntities()).thenReturn(new ArrayList<Referenceable>());
+        return message;
+    }
+
     @Test
     public void testConsumerProceedsWithFalseIfInterrupted() throws AtlasServiceException, InterruptedException {
         NotificationHookConsumer notificationHookConsumer = new NotificationHookConsumer(notificationInterface, atlasClient);
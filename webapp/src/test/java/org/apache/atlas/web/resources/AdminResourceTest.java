@@ -18,6 +18,8 @@
 
 package org.apache.atlas.web.resources;
 
+import org.apache.atlas.discovery.graph.CompiledQueryCache;
+import org.apache.atlas.services.EntityDefinitionCache;
 import org.apache.atlas.web.service.ServiceState;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
@@ -28,16 +30,26 @@ import org.testng.annotations.Test;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class AdminResourceTest {
 
     @Mock
     private ServiceState serviceState;
 
+    @Mock
+    private EntityDefinitionCache entityDefinitionCache;
+
+    @Mock
+    private CompiledQueryCache compiledQueryCache;
+
     @BeforeMethod
     public void setup() {
         MockitoAnnotations.initMocks(this);
@@ -48,7 +60,7 @@ public class AdminResourceTest {
 
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.ACTIVE);
 
-        AdminResource adminResource = new AdminResource(serviceState);
+        AdminResource adminResource = new AdminResource(serviceState, entityDefinitionCache, compiledQueryCache);
         Response response = adminResource.getStatus();
         assertEquals(response.getStatus(), HttpServletResponse.SC_OK);
         JSONObject entity = (JSONObject) response.getEntity();
@@ -59,7 +71,7 @@ public class AdminResourceTest {
     public void testResourceGetsValueFromServiceState() throws JSONException {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
 
-        AdminResource adminResource = new AdminResource(serviceState);
+        AdminResource adminResource = new AdminResource(serviceState, entityDefinitionCache, compiledQueryCache);
         Response response = adminResource.getStatus();
 
         verify(serviceState).getState();
@@ -67,4 +79,23 @@ public class AdminResourceTest {
         assertEquals(entity.get("Status"), "PASSIVE");
 
     }
+
+    @Test
+    public void testMetricsAreReturned() throws JSONException {
+        Map<String, Long> cacheMetrics = new LinkedHashMap<>();
+        cacheMetrics.put("hits", 3L);
+        cacheMetrics.put("misses", 1L);
+        when(entityDefinitionCache.getMetrics()).thenReturn(cacheMetrics);
+        when(compiledQueryCache.getMetrics()).thenReturn(Collections.singletonMap("hits", 5L));
+
+        AdminResource adminResource = new AdminResource(serviceState, entityDefinitionCache, compiledQueryCache);
+        Response response = adminResource.getMetrics();
+
+        assertEquals(response.getStatus(), HttpServletResponse.SC_OK);
+        JSONObject entity = (JSONObject) response.getEntity();
+        assertEquals(entity.getJSONObject("entityDefinitionCache").getLong("hits"), 3L);
+        assertEquals(entity.getJSONObject("entityDefinitionCache").getLong("misses"), 1L);
+        assertEquals(entity.getJSONObject("compiledQueryCache").getLong("hits"), 5L);
+        assertTrue(entity.getJSONObject("graphTransactions").has("retries"));
+    }
 }
\ No newline at end of file